@@ -0,0 +1,75 @@
+package com.example.istio.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.opentelemetry.api.OpenTelemetry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC server of a service, started and drained with the Spring context and listening next to the HTTP port.
+ * mTLS is terminated by the Istio sidecar, so the server itself speaks plaintext HTTP/2.
+ * Every call runs in the caller's trace; further interceptors run inside it, in the given order.
+ */
+@Slf4j
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private final Server server;
+    private final Duration shutdownGracePeriod;
+    private volatile boolean running;
+
+    public GrpcServerLifecycle(int port, Duration shutdownGracePeriod, OpenTelemetry openTelemetry,
+                               BindableService service, ServerInterceptor... interceptors) {
+        // ServerInterceptors.intercept runs the last interceptor first
+        List<ServerInterceptor> chain = new ArrayList<>(List.of(interceptors));
+        Collections.reverse(chain);
+        chain.add(new TracingServerInterceptor(openTelemetry));
+        this.server = NettyServerBuilder.forPort(port)
+                .addService(ServerInterceptors.intercept(service, chain))
+                // order-service channels ping every 30s; the default policy would reject that
+                .permitKeepAliveTime(20, TimeUnit.SECONDS)
+                .build();
+        this.shutdownGracePeriod = shutdownGracePeriod;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server.start();
+            running = true;
+            log.info("gRPC server listening on port {}", server.getPort());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start gRPC server", e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.shutdownNow();
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
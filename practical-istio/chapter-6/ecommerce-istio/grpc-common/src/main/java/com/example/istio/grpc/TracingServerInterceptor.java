@@ -0,0 +1,76 @@
+package com.example.istio.grpc;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+
+/**
+ * Extracts the caller's OpenTelemetry context (traceparent, baggage) from gRPC metadata and makes
+ * it current for every callback of the call, so spans started by the handler join the caller's trace
+ */
+public class TracingServerInterceptor implements ServerInterceptor {
+
+    private static final TextMapGetter<Metadata> GETTER = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Metadata carrier) {
+            return carrier.keys();
+        }
+
+        @Override
+        public String get(Metadata carrier, String key) {
+            return carrier == null ? null : carrier.get(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER));
+        }
+    };
+
+    private final TextMapPropagator propagator;
+
+    public TracingServerInterceptor(OpenTelemetry openTelemetry) {
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        Context context = propagator.extract(Context.current(), headers, GETTER);
+        ServerCall.Listener<ReqT> delegate;
+        try (Scope scope = context.makeCurrent()) {
+            delegate = next.startCall(call, headers);
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(delegate) {
+            @Override
+            public void onMessage(ReqT message) {
+                try (Scope scope = context.makeCurrent()) {
+                    super.onMessage(message);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                try (Scope scope = context.makeCurrent()) {
+                    super.onHalfClose();
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                try (Scope scope = context.makeCurrent()) {
+                    super.onCancel();
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                try (Scope scope = context.makeCurrent()) {
+                    super.onComplete();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.istio.inventory.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Admission control in front of the check endpoints. Rejected calls get a 429 with
+ * Retry-After before any cache or database work happens. Callers are identified by
+ * {@link CallerResolver}; gRPC calls go through {@link AdmissionServerInterceptor}.
+ */
+@Slf4j
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final AdmissionLimiter admissionLimiter;
+    private final CallerResolver callerResolver;
+
+    public AdmissionFilter(AdmissionLimiter admissionLimiter, CallerResolver callerResolver) {
+        this.admissionLimiter = admissionLimiter;
+        this.callerResolver = callerResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String caller = callerOf(request);
+
+        AdmissionLimiter.Decision decision = admissionLimiter.tryAdmit(caller);
+        if (!decision.admitted()) {
+            // Whole seconds, rounded up
+            long retryAfterSeconds = Math.max(1L, (decision.retryAfterNanos() + 999_999_999L) / 1_000_000_000L);
+            log.debug("Rejected {} call from {}: {}", decision.priority(), caller, decision.reason());
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            admissionLimiter.release();
+        }
+    }
+
+    String callerOf(HttpServletRequest request) {
+        return callerResolver.callerOf(request::getHeader, request.getRemoteAddr());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.istio.inventory.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides admission of inventory checks without taking locks: a bulkhead on concurrent calls,
+ * a token bucket per background caller and a global token bucket. Checkout callers may use the
+ * full global budgets and have no per-caller bucket, as all checkout pods share one identity;
+ * background callers only get their configured share of each budget. A rejected call gives back
+ * what it took from the earlier stages.
+ */
+@Component
+public class AdmissionLimiter {
+
+    /**
+     * Outcome of an admission attempt; {@code retryAfterNanos} is 0 when admitted
+     */
+    public record Decision(PriorityClass priority, long retryAfterNanos, String reason) {
+        public boolean admitted() {
+            return retryAfterNanos == 0L;
+        }
+    }
+
+    private static final String OVERFLOW_CALLER = "overflow";
+
+    private final Map<String, TokenBucket> callerBuckets = new ConcurrentHashMap<>();
+    private final TokenBucket globalBucket;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // System.nanoTime() of the last sweep for idle caller buckets
+    private final AtomicLong lastEviction;
+
+    private final int perCallerLimit;
+    private final long periodNanos;
+    private final int maxCallers;
+    private final int maxConcurrentCalls;
+    private final double backgroundShare;
+    private final Set<String> checkoutCallers;
+    private final MeterRegistry meterRegistry;
+    // Looked up once, the admitted path runs on every check
+    private final Map<PriorityClass, Counter> admitted = new EnumMap<>(PriorityClass.class);
+
+    public AdmissionLimiter(MeterRegistry meterRegistry,
+                            @Value("${inventory.admission.global-limit:100}") int globalLimit,
+                            @Value("${inventory.admission.per-caller-limit:50}") int perCallerLimit,
+                            @Value("${inventory.admission.refresh-period:1s}") Duration refreshPeriod,
+                            @Value("${inventory.admission.max-callers:1000}") int maxCallers,
+                            @Value("${inventory.admission.max-concurrent-calls:20}") int maxConcurrentCalls,
+                            @Value("${inventory.admission.background-share:0.5}") double backgroundShare,
+                            @Value("${inventory.admission.checkout-callers:order-service}") Set<String> checkoutCallers) {
+        this.meterRegistry = meterRegistry;
+        this.periodNanos = refreshPeriod.toNanos();
+        this.globalBucket = new TokenBucket(globalLimit, periodNanos);
+        this.perCallerLimit = perCallerLimit;
+        this.maxCallers = maxCallers;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.backgroundShare = backgroundShare;
+        this.checkoutCallers = checkoutCallers;
+        this.lastEviction = new AtomicLong(System.nanoTime() - periodNanos);
+        meterRegistry.gauge("inventory.admission.inflight", inFlight);
+        for (PriorityClass priority : PriorityClass.values()) {
+            admitted.put(priority, meterRegistry.counter("inventory.admission",
+                    "decision", "admitted", "priority", priority.name()));
+        }
+    }
+
+    public PriorityClass priorityOf(String caller) {
+        return checkoutCallers.contains(caller) ? PriorityClass.CHECKOUT : PriorityClass.BACKGROUND;
+    }
+
+    /**
+     * Attempts to admit one call. An admitted call must be followed by {@link #release()}.
+     */
+    public Decision tryAdmit(String caller) {
+        PriorityClass priority = priorityOf(caller);
+        double share = priority == PriorityClass.CHECKOUT ? 1.0 : backgroundShare;
+
+        // The bulkhead slot is the cheapest stage to give back, so it is taken first
+        if (!tryEnter((int) (maxConcurrentCalls * share))) {
+            // No meaningful wait estimate for a full bulkhead, ask for a retry in one period
+            return reject(priority, periodNanos, "concurrency");
+        }
+
+        TokenBucket callerBucket = priority == PriorityClass.CHECKOUT ? null : callerBucket(caller);
+        long wait = callerBucket == null ? 0L : callerBucket.tryAcquire(share);
+        if (wait > 0) {
+            release();
+            return reject(priority, wait, "caller_rate");
+        }
+        wait = globalBucket.tryAcquire(share);
+        if (wait > 0) {
+            release();
+            if (callerBucket != null) {
+                callerBucket.refund();
+            }
+            return reject(priority, wait, "global_rate");
+        }
+
+        admitted.get(priority).increment();
+        return new Decision(priority, 0L, null);
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    private TokenBucket callerBucket(String caller) {
+        TokenBucket bucket = callerBuckets.get(caller);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (callerBuckets.size() >= maxCallers) {
+            evictIdleCallers();
+        }
+        // Bound memory when more distinct callers are active at once; the rest share one bucket
+        String key = callerBuckets.size() < maxCallers ? caller : OVERFLOW_CALLER;
+        return callerBuckets.computeIfAbsent(key, k -> new TokenBucket(perCallerLimit, periodNanos));
+    }
+
+    /**
+     * Drops the buckets that have refilled completely. A full bucket admits exactly like a new one,
+     * so its caller loses nothing when it returns. Sweeps at most once per period, as only callers
+     * active in the last period can still hold partly drained buckets.
+     */
+    private void evictIdleCallers() {
+        long now = System.nanoTime();
+        long last = lastEviction.get();
+        if (now - last < periodNanos || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+        callerBuckets.values().removeIf(TokenBucket::isFull);
+    }
+
+    private boolean tryEnter(int limit) {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private Decision reject(PriorityClass priority, long retryAfterNanos, String reason) {
+        meterRegistry.counter("inventory.admission",
+                "decision", "rejected", "priority", priority.name(), "reason", reason).increment();
+        return new Decision(priority, retryAfterNanos, reason);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.istio.inventory.admission;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control for the gRPC endpoints, with the same limiter and caller identity as
+ * {@link AdmissionFilter}. A call is admitted once and holds its concurrency slot until it ends,
+ * so a CheckBasket stream counts as one call however many items it carries. Rejected calls end
+ * with RESOURCE_EXHAUSTED and a grpc-retry-pushback-ms trailer before the service sees them.
+ */
+@Slf4j
+public class AdmissionServerInterceptor implements ServerInterceptor {
+
+    static final Metadata.Key<String> RETRY_PUSHBACK =
+            Metadata.Key.of("grpc-retry-pushback-ms", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final AdmissionLimiter admissionLimiter;
+    private final CallerResolver callerResolver;
+
+    public AdmissionServerInterceptor(AdmissionLimiter admissionLimiter, CallerResolver callerResolver) {
+        this.admissionLimiter = admissionLimiter;
+        this.callerResolver = callerResolver;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String caller = callerOf(call, headers);
+
+        AdmissionLimiter.Decision decision = admissionLimiter.tryAdmit(caller);
+        if (!decision.admitted()) {
+            log.debug("Rejected {} call from {}: {}", decision.priority(), caller, decision.reason());
+            Metadata trailers = new Metadata();
+            trailers.put(RETRY_PUSHBACK, String.valueOf(
+                    Math.max(1L, TimeUnit.NANOSECONDS.toMillis(decision.retryAfterNanos()))));
+            call.close(Status.RESOURCE_EXHAUSTED.withDescription("Admission rejected: " + decision.reason()),
+                    trailers);
+            return new ServerCall.Listener<>() {
+            };
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                admissionLimiter.release();
+            }
+        };
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(call, headers);
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onComplete() {
+                try {
+                    super.onComplete();
+                } finally {
+                    release.run();
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                try {
+                    super.onCancel();
+                } finally {
+                    release.run();
+                }
+            }
+        };
+    }
+
+    String callerOf(ServerCall<?, ?> call, Metadata headers) {
+        return callerResolver.callerOf(
+                name -> headers.get(Metadata.Key.of(name, Metadata.ASCII_STRING_MARSHALLER)),
+                remoteAddress(call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR)));
+    }
+
+    private static String remoteAddress(SocketAddress address) {
+        if (address instanceof InetSocketAddress inet && inet.getAddress() != null) {
+            return inet.getAddress().getHostAddress();
+        }
+        return String.valueOf(address);
+    }
+}
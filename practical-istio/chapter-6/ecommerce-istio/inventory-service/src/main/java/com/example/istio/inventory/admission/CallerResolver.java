@@ -0,0 +1,76 @@
+package com.example.istio.inventory.admission;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Identifies the caller of an admission-controlled call, over HTTP and gRPC alike.
+ * <p>
+ * Callers are identified by their mesh identity: the SPIFFE URI of the client certificate,
+ * which the Istio sidecar verifies on the mTLS connection and appends as the last element of
+ * x-forwarded-client-cert. Anything the client put in that header comes before it. This relies on
+ * STRICT mTLS (see the PeerAuthentication manifest): a plaintext caller's header would be passed on
+ * as sent. The caller header is only honoured when {@code trustCallerHeader} is set, i.e. without
+ * a sidecar, where nothing is authenticated anyway. Otherwise unidentified calls fall back to the
+ * remote address, which behind the sidecar is the Envoy loopback and so shares one background bucket.
+ */
+public class CallerResolver {
+
+    static final String CLIENT_CERT_HEADER = "x-forwarded-client-cert";
+
+    private final String callerHeader;
+    private final boolean trustCallerHeader;
+
+    public CallerResolver(String callerHeader, boolean trustCallerHeader) {
+        this.callerHeader = callerHeader;
+        this.trustCallerHeader = trustCallerHeader;
+    }
+
+    /**
+     * @param headers       value of a request header or gRPC metadata key by name, null when absent
+     * @param remoteAddress address the call came from
+     */
+    public String callerOf(UnaryOperator<String> headers, String remoteAddress) {
+        String principal = peerPrincipal(headers.apply(CLIENT_CERT_HEADER));
+        if (principal != null) {
+            return principal;
+        }
+        if (trustCallerHeader) {
+            String caller = headers.apply(callerHeader);
+            if (caller != null && !caller.isBlank()) {
+                return caller;
+            }
+        }
+        return remoteAddress;
+    }
+
+    /**
+     * URI of the last element of an x-forwarded-client-cert value, e.g.
+     * {@code By=spiffe://...;Hash=...;URI=spiffe://cluster.local/ns/ecommerce/sa/order-service}
+     */
+    static String peerPrincipal(String clientCert) {
+        if (clientCert == null || clientCert.isBlank()) {
+            return null;
+        }
+        // Elements are separated by ',' and pairs by ';', both only outside quoted values
+        String uri = null;
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i <= clientCert.length(); i++) {
+            char c = i < clientCert.length() ? clientCert.charAt(i) : ',';
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == ';' || c == ',')) {
+                String pair = clientCert.substring(start, i).trim();
+                if (pair.regionMatches(true, 0, "URI=", 0, 4)) {
+                    uri = pair.substring(4);
+                }
+                if (c == ',' && i < clientCert.length()) {
+                    // A new element starts; only the last one was set by the sidecar
+                    uri = null;
+                }
+                start = i + 1;
+            }
+        }
+        return uri == null || uri.isBlank() ? null : uri;
+    }
+}
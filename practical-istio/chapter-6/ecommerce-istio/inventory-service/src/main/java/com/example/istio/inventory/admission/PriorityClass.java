@@ -0,0 +1,10 @@
+package com.example.istio.inventory.admission;
+
+/**
+ * Admission priority of a caller. Background traffic may only use part of the
+ * rate and concurrency budgets, leaving the rest for checkout.
+ */
+public enum PriorityClass {
+    CHECKOUT,
+    BACKGROUND
+}
@@ -0,0 +1,57 @@
+package com.example.istio.inventory.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is one theoretical arrival time
+ * updated with compare-and-set, so contended callers never block each other.
+ * A bucket refilling {@code ratePerPeriod} tokens per period holds at most that many tokens.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int ratePerPeriod, long periodNanos) {
+        this.emissionIntervalNanos = Math.max(1L, periodNanos / ratePerPeriod);
+        this.burstToleranceNanos = emissionIntervalNanos * (ratePerPeriod - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes one token if the bucket holds more than {@code 1 - share} of its capacity in reserve.
+     * A share of 1.0 may drain the bucket completely.
+     *
+     * @return 0 when admitted, otherwise the nanoseconds until a token is available for this share
+     */
+    public long tryAcquire(double share) {
+        long tolerance = (long) (burstToleranceNanos * share);
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long waitNanos = tat - now - tolerance;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            long next = Math.max(tat, now) + emissionIntervalNanos;
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * True once the bucket has refilled to capacity, i.e. it is indistinguishable from a new one
+     */
+    public boolean isFull() {
+        return theoreticalArrival.get() - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Returns a token taken by {@link #tryAcquire(double)} for a call that was rejected further on
+     */
+    public void refund() {
+        theoreticalArrival.addAndGet(-emissionIntervalNanos);
+    }
+}
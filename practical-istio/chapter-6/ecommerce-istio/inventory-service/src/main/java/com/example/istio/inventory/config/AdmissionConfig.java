@@ -0,0 +1,47 @@
+package com.example.istio.inventory.config;
+
+import com.example.istio.inventory.admission.AdmissionFilter;
+import com.example.istio.inventory.admission.AdmissionLimiter;
+import com.example.istio.inventory.admission.AdmissionServerInterceptor;
+import com.example.istio.inventory.admission.CallerResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class AdmissionConfig {
+
+    @Bean
+    public CallerResolver callerResolver(
+            @Value("${inventory.admission.caller-header:x-caller-id}") String callerHeader,
+            @Value("${inventory.admission.trust-caller-header:false}") boolean trustCallerHeader) {
+        return new CallerResolver(callerHeader, trustCallerHeader);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionLimiter admissionLimiter,
+                                                                   CallerResolver callerResolver) {
+        FilterRegistrationBean<AdmissionFilter> registrationBean = new FilterRegistrationBean<>();
+
+        registrationBean.setFilter(new AdmissionFilter(admissionLimiter, callerResolver));
+
+        // Reject as early as possible, ahead of any other work
+        registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
+
+        // Only the check endpoints are admission controlled
+        registrationBean.addUrlPatterns("/api/inventory/check/*");
+
+        return registrationBean;
+    }
+
+    /**
+     * The same admission control for CheckStock and CheckBasket on the gRPC port, see GrpcServerConfig
+     */
+    @Bean
+    public AdmissionServerInterceptor admissionServerInterceptor(AdmissionLimiter admissionLimiter,
+                                                                 CallerResolver callerResolver) {
+        return new AdmissionServerInterceptor(admissionLimiter, callerResolver);
+    }
+}
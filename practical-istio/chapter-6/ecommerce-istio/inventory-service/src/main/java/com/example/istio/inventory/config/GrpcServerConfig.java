@@ -0,0 +1,35 @@
+package com.example.istio.inventory.config;
+
+import com.example.istio.grpc.GrpcServerLifecycle;
+import com.example.istio.inventory.admission.AdmissionServerInterceptor;
+import com.example.istio.inventory.grpc.InventoryGrpcService;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * gRPC server for order-service's service.transport=grpc, see GrpcServerLifecycle.
+ * Checks are admission controlled like the HTTP check endpoints.
+ */
+@Configuration
+@ConditionalOnProperty(name = "grpc.server.enabled", havingValue = "true", matchIfMissing = true)
+public class GrpcServerConfig {
+
+    @Bean
+    public GrpcServerLifecycle grpcServer(
+            @Value("${grpc.server.port:9091}") int port,
+            @Value("${grpc.server.shutdown-grace-period:10s}") Duration shutdownGracePeriod,
+            InventoryGrpcService inventoryGrpcService,
+            AdmissionServerInterceptor admissionServerInterceptor,
+            ObjectProvider<OpenTelemetry> openTelemetry) {
+        return new GrpcServerLifecycle(port, shutdownGracePeriod,
+                openTelemetry.getIfAvailable(GlobalOpenTelemetry::get), inventoryGrpcService,
+                admissionServerInterceptor);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.istio.inventory.controller;
+
+import com.example.istio.inventory.model.InventoryCheckResponse;
+import com.example.istio.inventory.model.InventoryException;
+import com.example.istio.inventory.model.ProductResponse;
+import com.example.istio.inventory.model.StockAdjustmentResponse;
+import com.example.istio.inventory.service.InventoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/inventory")
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    @Value("${inventory.catalog.max-batch-size:500}")
+    private int maxBatchSize;
+
+    public InventoryController(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @GetMapping("/check/{productId}")
+    public InventoryCheckResponse checkInventory(@PathVariable String productId,
+                                                 @RequestParam(defaultValue = "1") int quantity) {
+        return inventoryService.checkAvailability(productId, quantity);
+    }
+
+    /**
+     * Adjusts stock on whichever replica receives the call; the shard owner picks the change up
+     * with its next sync unless the caller routes by shard key
+     */
+    @PostMapping("/{productId}/adjust")
+    public StockAdjustmentResponse adjustStock(@PathVariable String productId,
+                                               @RequestParam int delta) {
+        return inventoryService.adjustStock(productId, delta);
+    }
+
+    /**
+     * Full catalog for order-service's bulk load, or the delta since its watermark
+     */
+    @GetMapping("/products")
+    public List<ProductResponse> products(@RequestParam(required = false)
+                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                          LocalDateTime updatedSince) {
+        return inventoryService.findProducts(updatedSince);
+    }
+
+    @PostMapping("/products/batch")
+    public List<ProductResponse> productsByIds(@RequestBody List<String> productIds) {
+        if (productIds.size() > maxBatchSize) {
+            throw new InventoryException("At most " + maxBatchSize + " products per batch",
+                    null, "BATCH_TOO_LARGE");
+        }
+        return inventoryService.findProducts(productIds);
+    }
+
+    @ExceptionHandler(InventoryException.class)
+    public ProblemDetail handleInventoryException(InventoryException e) {
+        HttpStatus status = switch (e.getErrorCode()) {
+            case "UNKNOWN_PRODUCT" -> HttpStatus.NOT_FOUND;
+            case "INSUFFICIENT_STOCK" -> HttpStatus.CONFLICT;
+            default -> HttpStatus.BAD_REQUEST;
+        };
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, e.getMessage());
+        problem.setProperty("productId", e.getProductId());
+        problem.setProperty("errorCode", e.getErrorCode());
+        return problem;
+    }
+}
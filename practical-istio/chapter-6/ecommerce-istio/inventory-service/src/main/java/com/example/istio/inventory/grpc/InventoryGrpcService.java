@@ -0,0 +1,79 @@
+package com.example.istio.inventory.grpc;
+
+import com.example.istio.inventory.model.InventoryCheckResponse;
+import com.example.istio.inventory.service.InventoryService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * gRPC endpoint of the availability check, served next to GET /api/inventory/check/{productId}
+ */
+@Slf4j
+@Component
+public class InventoryGrpcService extends InventoryServiceGrpc.InventoryServiceImplBase {
+
+    private final InventoryService inventoryService;
+
+    public InventoryGrpcService(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @Override
+    public void checkStock(StockCheckRequest request, StreamObserver<StockCheckResponse> responseObserver) {
+        try {
+            responseObserver.onNext(check(request));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            log.warn("Stock check failed for product {}: {}", request.getProductId(), e.getMessage());
+            responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    @Override
+    public StreamObserver<StockCheckRequest> checkBasket(StreamObserver<StockCheckResponse> responseObserver) {
+        return new StreamObserver<>() {
+            // gRPC delivers the callbacks of one call sequentially
+            private boolean failed;
+
+            @Override
+            public void onNext(StockCheckRequest request) {
+                if (failed) {
+                    return;
+                }
+                try {
+                    // One response per request, in request order
+                    responseObserver.onNext(check(request));
+                } catch (RuntimeException e) {
+                    failed = true;
+                    log.warn("Basket check failed for product {}: {}", request.getProductId(), e.getMessage());
+                    responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.debug("Basket stream cancelled by client: {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!failed) {
+                    responseObserver.onCompleted();
+                }
+            }
+        };
+    }
+
+    private StockCheckResponse check(StockCheckRequest request) {
+        InventoryCheckResponse response = inventoryService.checkAvailability(
+                request.getProductId(), request.getQuantity());
+        return StockCheckResponse.newBuilder()
+                .setProductId(response.getProductId())
+                .setAvailable(response.isAvailable())
+                .setAvailableQuantity(response.getAvailableQuantity())
+                .setRequestedQuantity(response.getRequestedQuantity())
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.istio.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response of an availability check for a single product
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryCheckResponse {
+    private String productId;
+    private boolean available;
+    private Integer availableQuantity;
+    private Integer requestedQuantity;
+}
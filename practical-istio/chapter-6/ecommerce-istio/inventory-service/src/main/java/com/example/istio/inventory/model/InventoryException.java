@@ -0,0 +1,24 @@
+package com.example.istio.inventory.model;
+
+/**
+ * Exception for inventory-related errors
+ * Includes fields helpful for monitoring and debugging
+ */
+public class InventoryException extends RuntimeException {
+    private final String productId;
+    private final String errorCode;
+
+    public InventoryException(String message, String productId, String errorCode) {
+        super(message);
+        this.productId = productId;
+        this.errorCode = errorCode;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
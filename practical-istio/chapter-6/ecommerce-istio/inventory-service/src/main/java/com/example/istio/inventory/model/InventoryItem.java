@@ -0,0 +1,91 @@
+package com.example.istio.inventory.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Stock level and catalog data of a single product
+ */
+@Entity
+@Table(name = "inventory_item",
+        indexes = {
+                @Index(name = "idx_inventory_item_catalog_updated", columnList = "catalogUpdated"),
+                @Index(name = "idx_inventory_item_shard_updated", columnList = "shardId, lastUpdated")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryItem {
+
+    @Id
+    private String productId;
+
+    @NotNull
+    @Min(0)
+    private Integer quantity;
+
+    // Incremented by every stock adjustment, so in-memory copies can tell newer levels from older ones
+    private Long stockVersion;
+
+    // Stock shard under inventory.sharding.shard-count, assigned by ShardedStockStore while null
+    private Integer shardId;
+
+    private String productName;
+    private String category;
+
+    // Last change of productName or category; stock adjustments leave it alone, so catalog deltas stay small
+    private LocalDateTime catalogUpdated;
+
+    // Audit fields for tracking and observability
+    private LocalDateTime lastUpdated;
+    private String lastModifiedBy;
+
+    // Distributed tracing fields
+    private String traceId;
+    private String spanId;
+
+    // Catalog data as loaded, to tell catalog changes from stock changes on update
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String loadedProductName;
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String loadedCategory;
+
+    @PostLoad
+    protected void onLoad() {
+        loadedProductName = productName;
+        loadedCategory = category;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        lastUpdated = LocalDateTime.now();
+        if (catalogUpdated == null || !Objects.equals(productName, loadedProductName)
+                || !Objects.equals(category, loadedCategory)) {
+            catalogUpdated = lastUpdated;
+            onLoad();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.istio.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Catalog data of a product, without stock levels
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductResponse {
+    private String productId;
+    private String productName;
+    private String category;
+    // Last change of the catalog data, the watermark for order-service's delta refreshes
+    private LocalDateTime catalogUpdated;
+}
@@ -0,0 +1,35 @@
+package com.example.istio.inventory.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Ownership lease of one stock shard by an inventory-service replica.
+ * The epoch increases on every change of owner, so a replica can tell whether
+ * its in-memory copy of the shard is still the current one.
+ */
+@Entity
+@Table(name = "inventory_shard_lease")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardLease {
+
+    @Id
+    private Integer shardId;
+
+    private String owner;
+    private long epoch;
+    private Instant expiresAt;
+
+    // Replica waiting for the current owner to hand the shard over
+    private String handoffRequestedBy;
+}
@@ -0,0 +1,19 @@
+package com.example.istio.inventory.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a stock adjustment
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentResponse {
+    private String productId;
+    private Integer previousQuantity;
+    private Integer quantity;
+}
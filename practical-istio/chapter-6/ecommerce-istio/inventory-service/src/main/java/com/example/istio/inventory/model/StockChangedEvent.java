@@ -0,0 +1,9 @@
+package com.example.istio.inventory.model;
+
+/**
+ * Published inside the transaction that changed a product's stock; listeners act after commit.
+ * {@code version} is the product's stock version after the change, listeners may see events out of order.
+ */
+public record StockChangedEvent(String productId, String category, int previousQuantity, int quantity,
+                                long version) {
+}
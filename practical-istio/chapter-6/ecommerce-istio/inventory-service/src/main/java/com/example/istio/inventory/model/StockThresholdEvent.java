@@ -0,0 +1,12 @@
+package com.example.istio.inventory.model;
+
+/**
+ * Emitted when a product's stock falls to or below a configured threshold
+ */
+public record StockThresholdEvent(String productId, String category, Type type, int quantity, int threshold) {
+
+    public enum Type {
+        LOW_STOCK,
+        REORDER
+    }
+}
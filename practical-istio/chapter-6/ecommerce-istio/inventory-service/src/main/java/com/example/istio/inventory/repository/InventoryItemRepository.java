@@ -0,0 +1,53 @@
+package com.example.istio.inventory.repository;
+
+import com.example.istio.inventory.model.InventoryItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface InventoryItemRepository extends JpaRepository<InventoryItem, String> {
+
+    /**
+     * Items whose catalog data changed at or after the given time; inclusive so that changes
+     * sharing the caller's watermark timestamp are not skipped
+     */
+    List<InventoryItem> findByCatalogUpdatedGreaterThanEqual(LocalDateTime since);
+
+    List<InventoryItem> findByShardIdIn(Collection<Integer> shardIds);
+
+    /**
+     * Items of the given shards changed at or after the given time, inclusive like findByCatalogUpdatedGreaterThanEqual
+     */
+    List<InventoryItem> findByShardIdInAndLastUpdatedGreaterThanEqual(Collection<Integer> shardIds,
+                                                                      LocalDateTime since);
+
+    @Query("select i.productId from InventoryItem i where i.shardId is null")
+    List<String> findProductIdsWithoutShard();
+
+    /**
+     * Sets the shard without touching lastUpdated, so assigning it is not mistaken for a stock change
+     */
+    @Transactional
+    @Modifying
+    @Query("update InventoryItem i set i.shardId = :shardId where i.productId = :productId")
+    int assignShard(@Param("productId") String productId, @Param("shardId") int shardId);
+
+    /**
+     * Atomically applies a stock delta unless it would make the quantity negative
+     *
+     * @return 1 if applied, 0 if the product is unknown or stock is insufficient
+     */
+    @Modifying
+    @Query("update InventoryItem i set i.quantity = i.quantity + :delta, "
+            + "i.stockVersion = coalesce(i.stockVersion, 0) + 1, i.lastUpdated = local datetime "
+            + "where i.productId = :productId and i.quantity + :delta >= 0")
+    int adjustQuantity(@Param("productId") String productId, @Param("delta") int delta);
+}
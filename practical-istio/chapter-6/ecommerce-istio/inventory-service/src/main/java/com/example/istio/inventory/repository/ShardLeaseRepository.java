@@ -0,0 +1,73 @@
+package com.example.istio.inventory.repository;
+
+import com.example.istio.inventory.model.ShardLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Compare-and-set style updates on shard leases; each returns the number of rows changed
+ */
+@Repository
+public interface ShardLeaseRepository extends JpaRepository<ShardLease, Integer> {
+
+    String UNOWNED = "((l.owner is null and (l.handoffRequestedBy is null or l.expiresAt is null "
+            + "or l.expiresAt < :now)) or (l.owner is not null and l.expiresAt < :now))";
+
+    List<ShardLease> findByOwner(String owner);
+
+    @Transactional
+    @Modifying
+    @Query("update ShardLease l set l.owner = :owner, l.epoch = l.epoch + 1, l.expiresAt = :expiresAt, "
+            + "l.handoffRequestedBy = null "
+            + "where l.shardId = :shardId and (l.owner is null or l.expiresAt < :now)")
+    int acquire(@Param("shardId") int shardId, @Param("owner") String owner,
+                @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update ShardLease l set l.expiresAt = :expiresAt "
+            + "where l.shardId = :shardId and l.owner = :owner and l.epoch = :epoch")
+    int renew(@Param("shardId") int shardId, @Param("owner") String owner,
+              @Param("epoch") long epoch, @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update ShardLease l set l.handoffRequestedBy = :requester "
+            + "where l.shardId = :shardId and l.owner <> :requester and l.handoffRequestedBy is null")
+    int requestHandoff(@Param("shardId") int shardId, @Param("requester") String requester);
+
+    /**
+     * Shards whose lease expired, or that were released without a pending handoff or whose
+     * handoff reservation ran out
+     */
+    @Query("select l.shardId from ShardLease l where " + UNOWNED)
+    List<Integer> findUnowned(@Param("now") Instant now);
+
+    /**
+     * Like acquire, but leaves shards reserved for a handoff requester alone
+     */
+    @Transactional
+    @Modifying
+    @Query("update ShardLease l set l.owner = :owner, l.epoch = l.epoch + 1, l.expiresAt = :expiresAt, "
+            + "l.handoffRequestedBy = null "
+            + "where l.shardId = :shardId and " + UNOWNED)
+    int acquireUnowned(@Param("shardId") int shardId, @Param("owner") String owner,
+                       @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Gives the shard up; with a pending handoff, reservedUntil keeps unowned claims away until then
+     */
+    @Transactional
+    @Modifying
+    @Query("update ShardLease l set l.owner = null, l.expiresAt = :reservedUntil "
+            + "where l.shardId = :shardId and l.owner = :owner and l.epoch = :epoch")
+    int release(@Param("shardId") int shardId, @Param("owner") String owner, @Param("epoch") long epoch,
+                @Param("reservedUntil") Instant reservedUntil);
+}
@@ -0,0 +1,120 @@
+package com.example.istio.inventory.service;
+
+import com.example.istio.inventory.model.InventoryCheckResponse;
+import com.example.istio.inventory.model.InventoryException;
+import com.example.istio.inventory.model.InventoryItem;
+import com.example.istio.inventory.model.ProductResponse;
+import com.example.istio.inventory.model.StockAdjustmentResponse;
+import com.example.istio.inventory.model.StockChangedEvent;
+import com.example.istio.inventory.repository.InventoryItemRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Slf4j
+@Service
+public class InventoryService {
+
+    private final ShardedStockStore stockStore;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.validation.maxAdjustmentSize:1000}")
+    private int maxAdjustmentSize;
+
+    public InventoryService(ShardedStockStore stockStore, InventoryItemRepository inventoryItemRepository,
+                            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.stockStore = stockStore;
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public InventoryCheckResponse checkAvailability(String productId, int quantity) {
+        int available = stockStore.availableQuantity(productId).orElse(0);
+        boolean sufficient = available >= quantity;
+
+        meterRegistry.counter("inventory.check",
+                "available", String.valueOf(sufficient)).increment();
+        log.debug("Checked product {}: requested {}, available {}", productId, quantity, available);
+
+        return InventoryCheckResponse.builder()
+                .productId(productId)
+                .available(sufficient)
+                .availableQuantity(available)
+                .requestedQuantity(quantity)
+                .build();
+    }
+
+    /**
+     * Adds (positive delta) or removes (negative delta) stock in one conditional update.
+     * The change reaches the in-memory store, the aggregates and the threshold alerts after commit.
+     */
+    @Transactional
+    public StockAdjustmentResponse adjustStock(String productId, int delta) {
+        if (delta == 0 || Math.abs(delta) > maxAdjustmentSize) {
+            throw new InventoryException("Adjustment must be non-zero and at most " + maxAdjustmentSize,
+                    productId, "INVALID_ADJUSTMENT");
+        }
+
+        if (inventoryItemRepository.adjustQuantity(productId, delta) == 0) {
+            boolean known = inventoryItemRepository.existsById(productId);
+            throw new InventoryException(known ? "Insufficient stock" : "Unknown product",
+                    productId, known ? "INSUFFICIENT_STOCK" : "UNKNOWN_PRODUCT");
+        }
+
+        // Row is locked by the update, so this reads exactly the result of our delta
+        InventoryItem item = inventoryItemRepository.findById(productId).orElseThrow();
+        int previous = item.getQuantity() - delta;
+        eventPublisher.publishEvent(new StockChangedEvent(productId, item.getCategory(), previous,
+                item.getQuantity(), item.getStockVersion()));
+
+        meterRegistry.counter("inventory.stock.adjustments",
+                "direction", delta > 0 ? "in" : "out").increment();
+
+        return StockAdjustmentResponse.builder()
+                .productId(productId)
+                .previousQuantity(previous)
+                .quantity(item.getQuantity())
+                .build();
+    }
+
+    /**
+     * Catalog data of all products, or of those whose name or category changed since the given time when not null.
+     * Stock adjustments do not count as changes, see InventoryItem.catalogUpdated
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> findProducts(LocalDateTime updatedSince) {
+        List<InventoryItem> items = updatedSince == null
+                ? inventoryItemRepository.findAll()
+                : inventoryItemRepository.findByCatalogUpdatedGreaterThanEqual(updatedSince);
+        return items.stream().map(InventoryService::toProduct).toList();
+    }
+
+    /**
+     * Catalog data of the given products; unknown ids are omitted
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> findProducts(Collection<String> productIds) {
+        return inventoryItemRepository.findAllById(productIds).stream()
+                .map(InventoryService::toProduct)
+                .toList();
+    }
+
+    private static ProductResponse toProduct(InventoryItem item) {
+        return ProductResponse.builder()
+                .productId(item.getProductId())
+                .productName(item.getProductName())
+                .category(item.getCategory())
+                .catalogUpdated(item.getCatalogUpdated())
+                .build();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.istio.inventory.service;
+
+import com.example.istio.inventory.model.InventoryItem;
+import com.example.istio.inventory.model.StockChangedEvent;
+import com.example.istio.inventory.repository.InventoryItemRepository;
+import com.example.istio.inventory.shard.ShardOwnership;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stock levels of the shards owned by this replica.
+ * Products of shards owned elsewhere are read through to the database while ShardOwnership
+ * claims the shard in the background. A claimed shard is loaded completely, and every update is
+ * applied by stock version, so loads, after-commit events and the periodic sync may arrive in any order.
+ * Adjustments served by another replica reach the owner through that sync. Loads and the sync
+ * only read the owned shards' rows, through the (shardId, lastUpdated) index.
+ */
+@Slf4j
+@Component
+public class ShardedStockStore {
+
+    // Start of the sync watermark when no product has been updated yet
+    private static final LocalDateTime NEVER_UPDATED = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ShardOwnership ownership;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final StockLevelAggregator aggregator;
+    private final Duration syncOverlap;
+
+    private final Map<Integer, Map<String, StockLevel>> shards = new ConcurrentHashMap<>();
+    // Latest lastUpdated loaded or applied by the sync; null until the first shard is loaded
+    private volatile LocalDateTime syncedUntil;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notOwned;
+
+    public ShardedStockStore(ShardOwnership ownership, InventoryItemRepository inventoryItemRepository,
+                             StockLevelAggregator aggregator, MeterRegistry meterRegistry,
+                             @Value("${inventory.sharding.sync-overlap:PT10S}") Duration syncOverlap) {
+        this.ownership = ownership;
+        this.inventoryItemRepository = inventoryItemRepository;
+        this.aggregator = aggregator;
+        this.syncOverlap = syncOverlap;
+        this.hits = meterRegistry.counter("inventory.stock.requests", "result", "hit");
+        this.misses = meterRegistry.counter("inventory.stock.requests", "result", "miss");
+        this.notOwned = meterRegistry.counter("inventory.stock.requests", "result", "not_owned");
+        ownership.addShardLostListener(this::evictShard);
+        ownership.addShardsAcquiredListener(this::loadShards);
+    }
+
+    /**
+     * Current stock of a product, or empty if the product is unknown
+     */
+    public Optional<Integer> availableQuantity(String productId) {
+        int shard = ownership.shardOf(productId);
+
+        if (!ownership.owns(shard)) {
+            ownership.recordDemand(shard);
+            notOwned.increment();
+            return inventoryItemRepository.findById(productId).map(InventoryItem::getQuantity);
+        }
+
+        StockLevel level = shards.getOrDefault(shard, Map.of()).get(productId);
+        if (level != null) {
+            hits.increment();
+            return Optional.of(level.getQuantity());
+        }
+
+        // Created after the shard was loaded
+        misses.increment();
+        return inventoryItemRepository.findById(productId)
+                .map(item -> apply(shard, item.getProductId(), item.getCategory(), item.getQuantity(),
+                        versionOf(item)))
+                .map(StockLevel::getQuantity);
+    }
+
+    /**
+     * Applies committed stock changes to the in-memory level and the aggregates
+     */
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        int shard = ownership.shardOf(event.productId());
+        if (ownership.owns(shard)) {
+            apply(shard, event.productId(), event.category(), event.quantity(), event.version());
+        }
+    }
+
+    /**
+     * Catches up with rows changed since the last run, including adjustments that were routed to
+     * another replica and so never raised an event here
+     */
+    @Scheduled(fixedDelayString = "${inventory.sharding.sync-interval:PT2S}")
+    public void syncOwnedShards() {
+        LocalDateTime since = syncedUntil;
+        Set<Integer> owned = ownership.ownedShards();
+        if (since == null || owned.isEmpty()) {
+            return;
+        }
+        assignShards();
+        syncedUntil = applyAll(inventoryItemRepository.findByShardIdInAndLastUpdatedGreaterThanEqual(owned,
+                since.minus(syncOverlap)), since);
+    }
+
+    /**
+     * Loads every product of newly claimed shards, so the aggregates cover whole shards.
+     * Runs on the lease task, only when shards change hands.
+     */
+    void loadShards(Set<Integer> acquired) {
+        assignShards();
+        List<InventoryItem> items = inventoryItemRepository.findByShardIdIn(acquired);
+        LocalDateTime loadedUntil = applyAll(items, NEVER_UPDATED);
+        if (syncedUntil == null) {
+            // Later changes carry a later lastUpdated; the overlap covers commits still in flight
+            syncedUntil = loadedUntil;
+        }
+        log.debug("Loaded {} products of shards {}", items.size(), acquired);
+    }
+
+    /**
+     * Applies the rows of owned shards and returns the latest lastUpdated among them, or since
+     */
+    private LocalDateTime applyAll(List<InventoryItem> items, LocalDateTime since) {
+        LocalDateTime latest = since;
+        for (InventoryItem item : items) {
+            int shard = ownership.shardOf(item.getProductId());
+            if (ownership.owns(shard)) {
+                apply(shard, item.getProductId(), item.getCategory(), item.getQuantity(), versionOf(item));
+            }
+            if (item.getLastUpdated() != null && item.getLastUpdated().isAfter(latest)) {
+                latest = item.getLastUpdated();
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Gives products added since the last run their shard; indexed, and usually finds nothing
+     */
+    private void assignShards() {
+        for (String productId : inventoryItemRepository.findProductIdsWithoutShard()) {
+            inventoryItemRepository.assignShard(productId, ownership.shardOf(productId));
+        }
+    }
+
+    /**
+     * Inserts the level or moves it to a newer version, keeping the aggregates in step
+     */
+    private StockLevel apply(int shard, String productId, String category, int quantity, long version) {
+        Map<String, StockLevel> stock = shards.computeIfAbsent(shard, s -> new ConcurrentHashMap<>());
+        StockLevel applied = stock.compute(productId, (id, level) -> {
+            if (level == null) {
+                StockLevel loaded = new StockLevel(id, category, quantity, version);
+                aggregator.track(loaded);
+                return loaded;
+            }
+            level.advanceTo(quantity, version)
+                    .ifPresent(previous -> aggregator.quantityChanged(level, previous, quantity));
+            return level;
+        });
+        if (!ownership.owns(shard)) {
+            // Shard handed over meanwhile; its map may already be detached from shards
+            evictShard(shard);
+            untrackAll(stock);
+        }
+        return applied;
+    }
+
+    private void evictShard(int shard) {
+        Map<String, StockLevel> evicted = shards.remove(shard);
+        if (evicted != null) {
+            untrackAll(evicted);
+        }
+    }
+
+    private void untrackAll(Map<String, StockLevel> stock) {
+        // Removes under the entry lock, so each level is untracked exactly once
+        stock.keySet().forEach(productId -> stock.computeIfPresent(productId, (id, level) -> {
+            aggregator.untrack(level);
+            return null;
+        }));
+    }
+
+    private static long versionOf(InventoryItem item) {
+        return item.getStockVersion() != null ? item.getStockVersion() : 0L;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.istio.inventory.service;
+
+import com.example.istio.inventory.model.StockThresholdEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns stock threshold events into alerts (log and counter)
+ */
+@Slf4j
+@Component
+public class StockAlertListener {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean lowStockAlertEnabled;
+    private final boolean automaticReorderEnabled;
+
+    public StockAlertListener(MeterRegistry meterRegistry,
+                              @Value("${inventory.lowStock.alertEnabled:true}") boolean lowStockAlertEnabled,
+                              @Value("${inventory.reorder.automaticEnabled:false}") boolean automaticReorderEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.lowStockAlertEnabled = lowStockAlertEnabled;
+        this.automaticReorderEnabled = automaticReorderEnabled;
+    }
+
+    @EventListener
+    public void onThresholdCrossed(StockThresholdEvent event) {
+        meterRegistry.counter("inventory.stock.alerts",
+                "type", event.type().name(),
+                "category", event.category() == null ? "unknown" : event.category()).increment();
+
+        switch (event.type()) {
+            case LOW_STOCK -> {
+                if (lowStockAlertEnabled) {
+                    log.warn("Low stock for product {} ({}): {} left, threshold {}",
+                            event.productId(), event.category(), event.quantity(), event.threshold());
+                }
+            }
+            case REORDER -> log.warn("Reorder point reached for product {}: {} left, threshold {}, automatic reorder {}",
+                    event.productId(), event.quantity(), event.threshold(),
+                    automaticReorderEnabled ? "requested" : "disabled");
+        }
+    }
+}
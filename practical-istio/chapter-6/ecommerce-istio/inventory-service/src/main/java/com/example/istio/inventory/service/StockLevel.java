@@ -0,0 +1,58 @@
+package com.example.istio.inventory.service;
+
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory stock level of one product held by its shard owner.
+ * Quantity and stock version change together, and only ever towards a newer version, so
+ * updates arriving late or out of order cannot roll the level back.
+ */
+public class StockLevel {
+
+    private record Snapshot(int quantity, long version) {
+    }
+
+    private final String productId;
+    private final String category;
+    private final AtomicReference<Snapshot> snapshot;
+
+    public StockLevel(String productId, String category, int quantity, long version) {
+        this.productId = productId;
+        this.category = category;
+        this.snapshot = new AtomicReference<>(new Snapshot(quantity, version));
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public int getQuantity() {
+        return snapshot.get().quantity();
+    }
+
+    public long getVersion() {
+        return snapshot.get().version();
+    }
+
+    /**
+     * Moves to the quantity of a newer stock version
+     *
+     * @return the replaced quantity, or empty if this level is already at that version or newer
+     */
+    OptionalInt advanceTo(int quantity, long version) {
+        Snapshot next = new Snapshot(quantity, version);
+        Snapshot current;
+        do {
+            current = snapshot.get();
+            if (current.version() >= version) {
+                return OptionalInt.empty();
+            }
+        } while (!snapshot.compareAndSet(current, next));
+        return OptionalInt.of(current.quantity());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.istio.inventory.service;
+
+import com.example.istio.inventory.model.StockChangedEvent;
+import com.example.istio.inventory.model.StockThresholdEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps stock gauges up to date incrementally instead of scanning inventory_item.
+ * Per-category totals are striped LongAdders adjusted by each mutation's delta; per-SKU
+ * gauges read the in-memory level directly. Each replica loads and aggregates every product of
+ * the shards it owns, and replicas claim unowned shards (inventory.sharding.claim-unowned), so
+ * summing the gauges across replicas covers all products once the first lease task has run.
+ * Threshold events are emitted as soon as a committed mutation crosses a threshold.
+ */
+@Component
+public class StockLevelAggregator {
+
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int lowStockThreshold;
+    private final int reorderThreshold;
+    private final boolean perSkuGauges;
+
+    private final Map<String, LongAdder> categoryTotals = new ConcurrentHashMap<>();
+    private final Map<String, Meter.Id> skuGauges = new ConcurrentHashMap<>();
+
+    public StockLevelAggregator(MeterRegistry meterRegistry,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${inventory.lowStock.threshold:10}") int lowStockThreshold,
+                                @Value("${inventory.reorder.threshold:5}") int reorderThreshold,
+                                @Value("${inventory.metrics.enableDetailedTracking:true}") boolean perSkuGauges) {
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.lowStockThreshold = lowStockThreshold;
+        this.reorderThreshold = reorderThreshold;
+        this.perSkuGauges = perSkuGauges;
+    }
+
+    /**
+     * Adds a product loaded into memory to the aggregates
+     */
+    public void track(StockLevel level) {
+        categoryTotal(level.getCategory()).add(level.getQuantity());
+        if (perSkuGauges) {
+            skuGauges.computeIfAbsent(level.getProductId(), productId ->
+                    Gauge.builder("inventory.stock.level", level, StockLevel::getQuantity)
+                            .tag("product_id", productId)
+                            .tag("category", categoryKey(level.getCategory()))
+                            .register(meterRegistry)
+                            .getId());
+        }
+    }
+
+    /**
+     * Removes a product evicted from memory, e.g. when its shard moves to another replica
+     */
+    public void untrack(StockLevel level) {
+        categoryTotal(level.getCategory()).add(-level.getQuantity());
+        Meter.Id gauge = skuGauges.remove(level.getProductId());
+        if (gauge != null) {
+            meterRegistry.remove(gauge);
+        }
+    }
+
+    /**
+     * Applies the delta of a tracked product's mutation
+     */
+    public void quantityChanged(StockLevel level, int previousQuantity, int quantity) {
+        categoryTotal(level.getCategory()).add((long) quantity - previousQuantity);
+    }
+
+    @TransactionalEventListener
+    public void onStockChanged(StockChangedEvent event) {
+        checkThreshold(event, StockThresholdEvent.Type.LOW_STOCK, lowStockThreshold);
+        checkThreshold(event, StockThresholdEvent.Type.REORDER, reorderThreshold);
+    }
+
+    private void checkThreshold(StockChangedEvent event, StockThresholdEvent.Type type, int threshold) {
+        // Only the mutation that crosses the threshold fires, not every one below it
+        if (event.previousQuantity() > threshold && event.quantity() <= threshold) {
+            eventPublisher.publishEvent(new StockThresholdEvent(
+                    event.productId(), event.category(), type, event.quantity(), threshold));
+        }
+    }
+
+    private LongAdder categoryTotal(String category) {
+        return categoryTotals.computeIfAbsent(categoryKey(category), key -> {
+            LongAdder total = new LongAdder();
+            Gauge.builder("inventory.stock.category.level", total, LongAdder::sum)
+                    .tag("category", key)
+                    .register(meterRegistry);
+            return total;
+        });
+    }
+
+    private static String categoryKey(String category) {
+        return category == null ? "unknown" : category;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.istio.inventory.shard;
+
+import com.example.istio.inventory.model.ShardLease;
+import com.example.istio.inventory.repository.ShardLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks which stock shards this replica owns.
+ * Product ids map to a fixed number of shards, and callers send the shard number (not the product id)
+ * as the consistent-hash key, so Istio routes a whole shard to one pod. Requests for a shard this
+ * replica does not own only record demand; the scheduled lease task then claims the shard, or asks
+ * its owner for a handoff, and the owner drops its in-memory copy before releasing the lease, so two
+ * replicas never serve the same shard from memory. No lease row is written on the request path.
+ * With claim-unowned, the lease task also takes shards nobody holds, so every shard has an owner
+ * and the stock gauges summed over replicas cover all products; routing then moves shards through
+ * handoffs. A shard released for a handoff stays reserved for the requester for one lease duration.
+ * Leases only coordinate replicas sharing one database, see spring.datasource.url.
+ */
+@Slf4j
+@Component
+public class ShardOwnership {
+
+    private final ShardLeaseRepository leaseRepository;
+    private final String instanceId;
+    private final int shardCount;
+    private final Duration leaseDuration;
+    private final boolean claimUnowned;
+    private final String datasourceUrl;
+
+    private final Map<Integer, Long> ownedEpochs = new ConcurrentHashMap<>();
+    // Shards requested from this replica since the last lease task without being owned
+    private final Set<Integer> demanded = ConcurrentHashMap.newKeySet();
+    // Demand seen by the previous lease task; handoffs need demand in two consecutive runs
+    private Set<Integer> previouslyDemanded = Set.of();
+    private final List<IntConsumer> shardLostListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Set<Integer>>> shardsAcquiredListeners = new CopyOnWriteArrayList<>();
+
+    public ShardOwnership(ShardLeaseRepository leaseRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${inventory.sharding.instance-id}") String instanceId,
+                          @Value("${inventory.sharding.shard-count:64}") int shardCount,
+                          @Value("${inventory.sharding.lease-duration:PT15S}") Duration leaseDuration,
+                          @Value("${inventory.sharding.claim-unowned:true}") boolean claimUnowned,
+                          @Value("${spring.datasource.url:}") String datasourceUrl) {
+        this.leaseRepository = leaseRepository;
+        this.instanceId = instanceId;
+        this.shardCount = shardCount;
+        this.leaseDuration = leaseDuration;
+        this.claimUnowned = claimUnowned;
+        this.datasourceUrl = datasourceUrl;
+        meterRegistry.gaugeMapSize("inventory.shards.owned", Tags.empty(), ownedEpochs);
+    }
+
+    @PostConstruct
+    void initializeLeases() {
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (!leaseRepository.existsById(shard)) {
+                try {
+                    leaseRepository.save(ShardLease.builder().shardId(shard).build());
+                } catch (DataIntegrityViolationException e) {
+                    // Another replica created it concurrently
+                }
+            }
+        }
+        log.info("Inventory replica {} sharding over {} shards", instanceId, shardCount);
+        if (datasourceUrl.startsWith("jdbc:h2:mem:")) {
+            log.warn("Shard leases and stock live in an in-memory database private to this pod; "
+                    + "run more than one replica only with a shared database (INVENTORY_DB_URL)");
+        }
+    }
+
+    /**
+     * Shard of a product; callers send this number as the routing key, so it must stay in sync
+     * with order-service's InventoryShardKey
+     */
+    public int shardOf(String productId) {
+        return Math.floorMod(productId.hashCode(), shardCount);
+    }
+
+    public boolean owns(int shard) {
+        return ownedEpochs.containsKey(shard);
+    }
+
+    public Set<Integer> ownedShards() {
+        return Set.copyOf(ownedEpochs.keySet());
+    }
+
+    /**
+     * Notes that traffic for a shard arrived here; the next lease task claims it.
+     * Only touches memory, so it is cheap enough for every request.
+     */
+    public void recordDemand(int shard) {
+        if (!owns(shard)) {
+            demanded.add(shard);
+        }
+    }
+
+    /**
+     * Takes the shard if it is free or its lease expired
+     *
+     * @return true if this replica now owns the shard
+     */
+    private boolean tryAcquire(int shard) {
+        Instant now = Instant.now();
+        if (leaseRepository.acquire(shard, instanceId, now, now.plus(leaseDuration)) == 0) {
+            return false;
+        }
+        return takeOver(shard);
+    }
+
+    /**
+     * Takes the shard if nobody holds it and it is not reserved for a handoff
+     */
+    private boolean tryAcquireUnowned(int shard) {
+        Instant now = Instant.now();
+        if (leaseRepository.acquireUnowned(shard, instanceId, now, now.plus(leaseDuration)) == 0) {
+            return false;
+        }
+        return takeOver(shard);
+    }
+
+    private boolean takeOver(int shard) {
+        leaseRepository.findById(shard)
+                .filter(lease -> instanceId.equals(lease.getOwner()))
+                .ifPresent(lease -> ownedEpochs.put(shard, lease.getEpoch()));
+        log.debug("Acquired shard {}", shard);
+        return owns(shard);
+    }
+
+    public void addShardLostListener(IntConsumer listener) {
+        shardLostListeners.add(listener);
+    }
+
+    /**
+     * Called from the lease task with the shards claimed in one run
+     */
+    public void addShardsAcquiredListener(Consumer<Set<Integer>> listener) {
+        shardsAcquiredListeners.add(listener);
+    }
+
+    /**
+     * Renews, hands over or drops the owned shards, then claims the shards requested since the last run
+     * and, with claim-unowned, the shards nobody holds
+     */
+    @Scheduled(fixedDelayString = "${inventory.sharding.renew-interval:PT5S}")
+    public void maintainLeases() {
+        renewLeases();
+        Set<Integer> acquired = claimDemandedShards();
+        if (claimUnowned) {
+            acquired.addAll(claimUnownedShards());
+        }
+        if (!acquired.isEmpty()) {
+            shardsAcquiredListeners.forEach(listener -> listener.accept(Set.copyOf(acquired)));
+        }
+    }
+
+    private void renewLeases() {
+        if (ownedEpochs.isEmpty()) {
+            return;
+        }
+        Map<Integer, ShardLease> leases = leaseRepository.findByOwner(instanceId).stream()
+                .collect(Collectors.toMap(ShardLease::getShardId, Function.identity()));
+        Instant expiresAt = Instant.now().plus(leaseDuration);
+
+        for (Map.Entry<Integer, Long> owned : ownedEpochs.entrySet()) {
+            int shard = owned.getKey();
+            long epoch = owned.getValue();
+            ShardLease lease = leases.get(shard);
+
+            if (lease == null || lease.getEpoch() != epoch) {
+                log.warn("Lost lease of shard {}", shard);
+                drop(shard);
+            } else if (lease.getHandoffRequestedBy() != null) {
+                log.info("Handing shard {} over to {}", shard, lease.getHandoffRequestedBy());
+                drop(shard);
+                // Reserved for the requester, so the unowned claim below does not take it back
+                leaseRepository.release(shard, instanceId, epoch, Instant.now().plus(leaseDuration));
+            } else if (leaseRepository.renew(shard, instanceId, epoch, expiresAt) == 0) {
+                log.warn("Could not renew lease of shard {}", shard);
+                drop(shard);
+            }
+        }
+    }
+
+    private Set<Integer> claimDemandedShards() {
+        Set<Integer> current = Set.copyOf(demanded);
+        demanded.removeAll(current);
+        Set<Integer> acquired = new HashSet<>();
+        for (int shard : current) {
+            if (owns(shard)) {
+                continue;
+            }
+            if (tryAcquire(shard)) {
+                acquired.add(shard);
+            } else if (previouslyDemanded.contains(shard)) {
+                // Requests still in flight when this replica handed a shard over must not pull it back
+                leaseRepository.requestHandoff(shard, instanceId);
+            }
+        }
+        previouslyDemanded = current;
+        return acquired;
+    }
+
+    private Set<Integer> claimUnownedShards() {
+        Set<Integer> acquired = new HashSet<>();
+        for (int shard : leaseRepository.findUnowned(Instant.now())) {
+            if (shard < shardCount && !owns(shard) && tryAcquireUnowned(shard)) {
+                acquired.add(shard);
+            }
+        }
+        return acquired;
+    }
+
+    @PreDestroy
+    void releaseAll() {
+        // Let the remaining replicas take over without waiting for lease expiry
+        for (Map.Entry<Integer, Long> owned : ownedEpochs.entrySet()) {
+            drop(owned.getKey());
+            leaseRepository.release(owned.getKey(), instanceId, owned.getValue(), null);
+        }
+    }
+
+    private void drop(int shard) {
+        ownedEpochs.remove(shard);
+        shardLostListeners.forEach(listener -> listener.accept(shard));
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.istio.inventory;
+
+import com.example.istio.inventory.model.InventoryItem;
+import com.example.istio.inventory.repository.InventoryItemRepository;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Context of the @DataJpaTest slices: only the JPA layer, since the application class
+ * would pull in the gRPC server and admission filter
+ */
+@Configuration
+@EntityScan(basePackageClasses = InventoryItem.class)
+@EnableJpaRepositories(basePackageClasses = InventoryItemRepository.class)
+public class JpaTestConfig {
+}
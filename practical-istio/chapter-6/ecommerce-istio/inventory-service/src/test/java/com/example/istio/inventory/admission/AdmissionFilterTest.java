@@ -0,0 +1,82 @@
+package com.example.istio.inventory.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionFilterTest {
+
+    private static final String ORDER_SERVICE = "spiffe://cluster.local/ns/ecommerce/sa/order-service";
+    private static final String SIDECAR_XFCC = "By=spiffe://cluster.local/ns/ecommerce/sa/inventory-service;"
+            + "Hash=3c0d9a4e;Subject=\"\";URI=" + ORDER_SERVICE;
+
+    private final AdmissionLimiter limiter = new AdmissionLimiter(new SimpleMeterRegistry(), 100, 2,
+            Duration.ofHours(1), 1000, 20, 1.0, Set.of(ORDER_SERVICE));
+
+    @Test
+    void identifiesCallersByTheMeshIdentityTheSidecarVerified() {
+        AdmissionFilter filter = filter(false);
+        MockHttpServletRequest request = request();
+        request.addHeader(CallerResolver.CLIENT_CERT_HEADER, SIDECAR_XFCC);
+        request.addHeader("x-caller-id", "someone-else");
+
+        assertThat(filter.callerOf(request)).isEqualTo(ORDER_SERVICE);
+    }
+
+    @Test
+    void ignoresElementsTheClientAddedBeforeTheSidecarOne() {
+        String forged = "URI=" + ORDER_SERVICE + ",By=spiffe://cluster.local/ns/ecommerce/sa/inventory-service;"
+                + "Subject=\"CN=crawler,O=example\";URI=spiffe://cluster.local/ns/tools/sa/crawler";
+
+        assertThat(CallerResolver.peerPrincipal(forged)).isEqualTo("spiffe://cluster.local/ns/tools/sa/crawler");
+        assertThat(CallerResolver.peerPrincipal("By=spiffe://x;Hash=1")).isNull();
+        assertThat(CallerResolver.peerPrincipal(null)).isNull();
+    }
+
+    @Test
+    void callerHeaderIsOnlyTakenWhenTrusted() {
+        MockHttpServletRequest request = request();
+        request.addHeader("x-caller-id", "order-service");
+
+        assertThat(filter(false).callerOf(request)).isEqualTo("127.0.0.6");
+        assertThat(filter(true).callerOf(request)).isEqualTo("order-service");
+    }
+
+    @Test
+    void rejectsWith429AndRetryAfterBeforeTheChainRuns() throws Exception {
+        AdmissionFilter filter = filter(false);
+        MockHttpServletResponse response = null;
+        for (int i = 0; i < 3; i++) {
+            response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request(), response, chain);
+            if (i < 2) {
+                assertThat(chain.getRequest()).isNotNull();
+            } else {
+                assertThat(chain.getRequest()).isNull();
+            }
+        }
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("Retry-After")).isNotNull();
+        assertThat(Long.parseLong(response.getHeader("Retry-After"))).isPositive();
+    }
+
+    private AdmissionFilter filter(boolean trustCallerHeader) {
+        return new AdmissionFilter(limiter, new CallerResolver("x-caller-id", trustCallerHeader));
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/inventory/check/PROD-001");
+        // Behind the sidecar every connection comes from Envoy
+        request.setRemoteAddr("127.0.0.6");
+        return request;
+    }
+}
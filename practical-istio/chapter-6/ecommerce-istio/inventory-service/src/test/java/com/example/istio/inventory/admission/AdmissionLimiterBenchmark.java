@@ -0,0 +1,123 @@
+package com.example.istio.inventory.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission decisions under contention: the CAS-based limiter against the same
+ * token bucket plus bulkhead built on a lock and a semaphore. Limits are set high enough
+ * that every call is admitted, so the figures are the cost of the decision itself.
+ * Run from inventory-service, varying the thread count with -t:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp target/test-classes:target/classes:$(cat target/test.classpath) org.openjdk.jmh.Main AdmissionLimiterBenchmark -t 64
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class AdmissionLimiterBenchmark {
+
+    private static final String CHECKOUT = "spiffe://cluster.local/ns/ecommerce/sa/order-service";
+    private static final int CALLERS = 16;
+
+    private AdmissionLimiter limiter;
+    private LockingLimiter lockingLimiter;
+
+    @State(Scope.Thread)
+    public static class Caller {
+        private static final AtomicInteger NEXT = new AtomicInteger();
+
+        String background;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            background = "crawler-" + NEXT.getAndIncrement() % CALLERS;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        limiter = new AdmissionLimiter(new SimpleMeterRegistry(), Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Duration.ofSeconds(1), 1000, Integer.MAX_VALUE, 0.5, Set.of(CHECKOUT));
+        lockingLimiter = new LockingLimiter(Integer.MAX_VALUE, TimeUnit.SECONDS.toNanos(1), Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public boolean casCheckout() {
+        return admitAndRelease(CHECKOUT);
+    }
+
+    @Benchmark
+    public boolean casBackground(Caller caller) {
+        return admitAndRelease(caller.background);
+    }
+
+    @Benchmark
+    public boolean lockingCheckout() {
+        if (!lockingLimiter.tryAdmit()) {
+            return false;
+        }
+        lockingLimiter.release();
+        return true;
+    }
+
+    private boolean admitAndRelease(String caller) {
+        if (!limiter.tryAdmit(caller).admitted()) {
+            return false;
+        }
+        limiter.release();
+        return true;
+    }
+
+    /**
+     * One global token bucket behind a monitor plus a semaphore bulkhead, the usual lock-based design
+     */
+    static class LockingLimiter {
+
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final Semaphore bulkhead;
+        private long theoreticalArrival = System.nanoTime();
+
+        LockingLimiter(int ratePerPeriod, long periodNanos, int maxConcurrentCalls) {
+            this.emissionIntervalNanos = Math.max(1L, periodNanos / ratePerPeriod);
+            this.burstToleranceNanos = emissionIntervalNanos * (ratePerPeriod - 1L);
+            this.bulkhead = new Semaphore(maxConcurrentCalls);
+        }
+
+        boolean tryAdmit() {
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (theoreticalArrival - now - burstToleranceNanos > 0) {
+                    return false;
+                }
+                theoreticalArrival = Math.max(theoreticalArrival, now) + emissionIntervalNanos;
+            }
+            return bulkhead.tryAcquire();
+        }
+
+        void release() {
+            bulkhead.release();
+        }
+    }
+}
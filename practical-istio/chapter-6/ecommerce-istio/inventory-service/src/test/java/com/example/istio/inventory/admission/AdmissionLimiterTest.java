@@ -0,0 +1,141 @@
+package com.example.istio.inventory.admission;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionLimiterTest {
+
+    private static final String CHECKOUT = "spiffe://cluster.local/ns/ecommerce/sa/order-service";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void checkoutIsOnlyBoundedByTheGlobalLimit() {
+        // All order-service pods share one identity; a per-caller limit below the global one would throttle them
+        AdmissionLimiter limiter = limiter(100, 10, 20, 0.5);
+
+        int admitted = admitSequentially(limiter, CHECKOUT, 150);
+
+        assertThat(admitted).isEqualTo(100);
+        assertThat(rejections("global_rate")).isEqualTo(50);
+        assertThat(rejections("caller_rate")).isZero();
+    }
+
+    @Test
+    void backgroundCallersGetTheirShareOfTheirOwnBucket() {
+        AdmissionLimiter limiter = limiter(1000, 10, 20, 0.5);
+
+        int admitted = admitSequentially(limiter, "crawler", 20);
+
+        assertThat(admitted).isBetween(5, 6);
+        assertThat(rejections("caller_rate")).isEqualTo(20 - admitted);
+        // Another background caller has a bucket of its own
+        assertThat(limiter.tryAdmit("poller").admitted()).isTrue();
+    }
+
+    @Test
+    void backgroundCannotDrainTheGlobalBudgetCheckoutNeeds() {
+        AdmissionLimiter limiter = limiter(100, 1000, 20, 0.5);
+
+        int background = 0;
+        for (int caller = 0; caller < 100; caller++) {
+            background += admitSequentially(limiter, "crawler-" + caller, 1);
+        }
+
+        assertThat(background).isBetween(50, 51);
+        assertThat(admitSequentially(limiter, CHECKOUT, 100)).isGreaterThanOrEqualTo(49);
+    }
+
+    @Test
+    void bulkheadRejectionsSpendNoTokens() {
+        AdmissionLimiter limiter = limiter(3, 3, 2, 1.0);
+        assertThat(limiter.tryAdmit(CHECKOUT).admitted()).isTrue();
+        assertThat(limiter.tryAdmit(CHECKOUT).admitted()).isTrue();
+
+        for (int i = 0; i < 10; i++) {
+            AdmissionLimiter.Decision decision = limiter.tryAdmit(CHECKOUT);
+            assertThat(decision.admitted()).isFalse();
+            assertThat(decision.reason()).isEqualTo("concurrency");
+        }
+        limiter.release();
+        limiter.release();
+
+        assertThat(limiter.tryAdmit(CHECKOUT).admitted()).isTrue();
+    }
+
+    @Test
+    void rateRejectionsGiveBackTheirBulkheadSlot() {
+        AdmissionLimiter limiter = limiter(1, 1, 5, 1.0);
+        assertThat(limiter.tryAdmit(CHECKOUT).admitted()).isTrue();
+        limiter.release();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAdmit(CHECKOUT).reason()).isEqualTo("global_rate");
+        }
+
+        assertThat(meterRegistry.get("inventory.admission.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    void globalRejectionRefundsTheCallerToken() {
+        AdmissionLimiter limiter = limiter(1, 1, 5, 1.0);
+        // Checkout takes the only global token
+        assertThat(limiter.tryAdmit(CHECKOUT).admitted()).isTrue();
+        limiter.release();
+
+        // The crawler's own token is given back each time the global bucket rejects it
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAdmit("crawler").reason()).isEqualTo("global_rate");
+        }
+        assertThat(rejections("caller_rate")).isZero();
+    }
+
+    @Test
+    void idleCallersMakeRoomForNewOnes() throws InterruptedException {
+        // Two caller buckets at most, refilling within 100 ms
+        AdmissionLimiter limiter = new AdmissionLimiter(meterRegistry, 1000, 2, Duration.ofMillis(100), 2,
+                20, 1.0, Set.of(CHECKOUT));
+        admitSequentially(limiter, "poller-a", 1);
+        admitSequentially(limiter, "poller-b", 1);
+
+        // Both buckets are still draining: newcomers share the overflow bucket
+        assertThat(admitSequentially(limiter, "crawler-a", 2)).isEqualTo(2);
+        assertThat(admitSequentially(limiter, "crawler-b", 1)).isZero();
+
+        Thread.sleep(150);
+
+        // The refilled buckets were dropped, each newcomer gets its own again
+        assertThat(admitSequentially(limiter, "crawler-c", 2)).isEqualTo(2);
+        assertThat(admitSequentially(limiter, "crawler-d", 2)).isEqualTo(2);
+    }
+
+    private AdmissionLimiter limiter(int globalLimit, int perCallerLimit, int maxConcurrentCalls,
+                                     double backgroundShare) {
+        // A long period, so no tokens refill while a test runs
+        return new AdmissionLimiter(meterRegistry, globalLimit, perCallerLimit, Duration.ofHours(1), 1000,
+                maxConcurrentCalls, backgroundShare, Set.of("order-service", CHECKOUT));
+    }
+
+    private static int admitSequentially(AdmissionLimiter limiter, String caller, int calls) {
+        int admitted = 0;
+        for (int i = 0; i < calls; i++) {
+            if (limiter.tryAdmit(caller).admitted()) {
+                admitted++;
+                limiter.release();
+            }
+        }
+        return admitted;
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.find("inventory.admission").tag("reason", reason).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.istio.inventory.admission;
+
+import com.example.istio.inventory.grpc.InventoryGrpcService;
+import com.example.istio.inventory.grpc.InventoryServiceGrpc;
+import com.example.istio.inventory.grpc.StockCheckRequest;
+import com.example.istio.inventory.model.InventoryCheckResponse;
+import com.example.istio.inventory.service.InventoryService;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionServerInterceptorTest {
+
+    private static final String ORDER_SERVICE = "spiffe://cluster.local/ns/ecommerce/sa/order-service";
+    private static final String CRAWLER = "spiffe://cluster.local/ns/tools/sa/crawler";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Two tokens per background caller, plenty globally
+    private final AdmissionLimiter limiter = new AdmissionLimiter(meterRegistry, 100, 2, Duration.ofHours(1),
+            1000, 20, 1.0, Set.of("order-service", ORDER_SERVICE));
+    private final List<String> checked = new CopyOnWriteArrayList<>();
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void rejectsBackgroundCallersPastTheirRateWithPushback() throws Exception {
+        start(false);
+        InventoryServiceGrpc.InventoryServiceBlockingStub crawler = stub(CRAWLER, null);
+
+        crawler.checkStock(request());
+        crawler.checkStock(request());
+
+        assertThatThrownBy(() -> crawler.checkStock(request()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+                    assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+                    assertThat(Long.parseLong(e.getTrailers().get(AdmissionServerInterceptor.RETRY_PUSHBACK)))
+                            .isPositive();
+                });
+        // The rejected call never reached the service
+        assertThat(checked).hasSize(2);
+        // Checkout has no per-caller bucket and is still admitted
+        stub(ORDER_SERVICE, null).checkStock(request());
+        assertThat(checked).hasSize(3);
+    }
+
+    @Test
+    void everyAdmittedCallGivesBackItsSlot() throws Exception {
+        start(false);
+
+        for (int i = 0; i < 5; i++) {
+            stub(ORDER_SERVICE, null).checkStock(request());
+        }
+
+        assertThat(meterRegistry.get("inventory.admission.inflight").gauge().value()).isZero();
+    }
+
+    @Test
+    void callerHeaderCannotClaimTheCheckoutIdentity() throws Exception {
+        start(false);
+        // No sidecar identity; the header is ignored and the caller is background
+        InventoryServiceGrpc.InventoryServiceBlockingStub forged = stub(null, "order-service");
+
+        forged.checkStock(request());
+        forged.checkStock(request());
+
+        assertThatThrownBy(() -> forged.checkStock(request()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.RESOURCE_EXHAUSTED));
+    }
+
+    @Test
+    void callerHeaderIsTakenWhenTrusted() throws Exception {
+        start(true);
+        InventoryServiceGrpc.InventoryServiceBlockingStub local = stub(null, "order-service");
+
+        for (int i = 0; i < 5; i++) {
+            local.checkStock(request());
+        }
+
+        assertThat(checked).hasSize(5);
+    }
+
+    private void start(boolean trustCallerHeader) throws Exception {
+        // Only the availability check is used by the gRPC endpoint
+        InventoryService inventoryService = new InventoryService(null, null, null, null) {
+            @Override
+            public InventoryCheckResponse checkAvailability(String productId, int quantity) {
+                checked.add(productId);
+                return InventoryCheckResponse.builder()
+                        .productId(productId)
+                        .available(true)
+                        .availableQuantity(quantity)
+                        .requestedQuantity(quantity)
+                        .build();
+            }
+        };
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(new InventoryGrpcService(inventoryService),
+                        new AdmissionServerInterceptor(limiter,
+                                new CallerResolver("x-caller-id", trustCallerHeader))))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    private InventoryServiceGrpc.InventoryServiceBlockingStub stub(String sidecarIdentity, String callerHeader) {
+        Metadata headers = new Metadata();
+        if (sidecarIdentity != null) {
+            headers.put(Metadata.Key.of(CallerResolver.CLIENT_CERT_HEADER, Metadata.ASCII_STRING_MARSHALLER),
+                    "By=spiffe://cluster.local/ns/ecommerce/sa/inventory-service;Hash=3c0d9a4e;URI="
+                            + sidecarIdentity);
+        }
+        if (callerHeader != null) {
+            headers.put(Metadata.Key.of("x-caller-id", Metadata.ASCII_STRING_MARSHALLER), callerHeader);
+        }
+        return InventoryServiceGrpc.newBlockingStub(channel)
+                .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+                .withDeadlineAfter(5, TimeUnit.SECONDS);
+    }
+
+    private static StockCheckRequest request() {
+        return StockCheckRequest.newBuilder().setProductId("PROD-001").setQuantity(1).build();
+    }
+}
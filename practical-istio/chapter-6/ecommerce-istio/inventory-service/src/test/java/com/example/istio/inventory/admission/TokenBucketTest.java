@@ -0,0 +1,46 @@
+package com.example.istio.inventory.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long HOUR = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void holdsAtMostOnePeriodOfTokens() {
+        TokenBucket bucket = new TokenBucket(10, HOUR);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.tryAcquire(1.0)).isZero();
+        }
+        assertThat(bucket.tryAcquire(1.0)).isPositive().isLessThanOrEqualTo(HOUR / 10);
+    }
+
+    @Test
+    void partialShareKeepsTheRestInReserve() {
+        TokenBucket bucket = new TokenBucket(10, HOUR);
+
+        int admitted = 0;
+        while (bucket.tryAcquire(0.5) == 0) {
+            admitted++;
+        }
+
+        assertThat(admitted).isBetween(5, 6);
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+    }
+
+    @Test
+    void refundReturnsAToken() {
+        TokenBucket bucket = new TokenBucket(1, HOUR);
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+        assertThat(bucket.tryAcquire(1.0)).isPositive();
+
+        bucket.refund();
+
+        assertThat(bucket.tryAcquire(1.0)).isZero();
+    }
+}
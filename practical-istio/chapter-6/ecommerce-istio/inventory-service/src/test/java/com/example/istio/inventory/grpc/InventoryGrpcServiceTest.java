@@ -0,0 +1,135 @@
+package com.example.istio.inventory.grpc;
+
+import com.example.istio.inventory.model.InventoryCheckResponse;
+import com.example.istio.inventory.service.InventoryService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InventoryGrpcServiceTest {
+
+    private final Map<String, Integer> stock = Map.of("PROD-001", 5, "PROD-002", 0);
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        // Only the availability check is used by the gRPC endpoint
+        InventoryService inventoryService = new InventoryService(null, null, null, null) {
+            @Override
+            public InventoryCheckResponse checkAvailability(String productId, int quantity) {
+                Integer available = stock.get(productId);
+                if (available == null) {
+                    throw new IllegalStateException("Stock lookup failed for " + productId);
+                }
+                return InventoryCheckResponse.builder()
+                        .productId(productId)
+                        .available(available >= quantity)
+                        .availableQuantity(available)
+                        .requestedQuantity(quantity)
+                        .build();
+            }
+        };
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(new InventoryGrpcService(inventoryService))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void checkStockMapsTheAvailabilityCheck() {
+        StockCheckResponse response = InventoryServiceGrpc.newBlockingStub(channel)
+                .checkStock(request("PROD-001", 3));
+
+        assertThat(response.getAvailable()).isTrue();
+        assertThat(response.getAvailableQuantity()).isEqualTo(5);
+        assertThat(response.getRequestedQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void checkStockFailureEndsTheCallWithInternal() {
+        assertThatThrownBy(() -> InventoryServiceGrpc.newBlockingStub(channel).checkStock(request("PROD-404", 1)))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INTERNAL));
+    }
+
+    @Test
+    void checkBasketAnswersEveryRequestInOrder() throws Exception {
+        BasketCall call = checkBasket(List.of(request("PROD-002", 1), request("PROD-001", 2)));
+
+        call.completion.get(5, TimeUnit.SECONDS);
+        assertThat(call.responses).extracting(StockCheckResponse::getProductId).containsExactly("PROD-002", "PROD-001");
+        assertThat(call.responses).extracting(StockCheckResponse::getAvailable).containsExactly(false, true);
+    }
+
+    @Test
+    void checkBasketFailureEndsTheStreamWithInternal() throws Exception {
+        BasketCall call = checkBasket(List.of(
+                request("PROD-001", 1), request("PROD-404", 1), request("PROD-002", 1)));
+
+        assertThat(call.completion).failsWithin(5, TimeUnit.SECONDS)
+                .withThrowableOfType(Exception.class)
+                .havingCause()
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INTERNAL));
+        assertThat(call.responses).extracting(StockCheckResponse::getProductId).containsExactly("PROD-001");
+    }
+
+    private BasketCall checkBasket(List<StockCheckRequest> requests) {
+        BasketCall call = new BasketCall();
+        StreamObserver<StockCheckRequest> requestObserver = InventoryServiceGrpc.newStub(channel)
+                .checkBasket(new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockCheckResponse response) {
+                        call.responses.add(response);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        call.completion.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        call.completion.complete(null);
+                    }
+                });
+        requests.forEach(requestObserver::onNext);
+        requestObserver.onCompleted();
+        return call;
+    }
+
+    private static StockCheckRequest request(String productId, int quantity) {
+        return StockCheckRequest.newBuilder().setProductId(productId).setQuantity(quantity).build();
+    }
+
+    private static class BasketCall {
+        final List<StockCheckResponse> responses = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+    }
+}
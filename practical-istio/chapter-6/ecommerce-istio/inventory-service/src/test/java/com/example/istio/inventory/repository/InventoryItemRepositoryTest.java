@@ -0,0 +1,70 @@
+package com.example.istio.inventory.repository;
+
+import com.example.istio.inventory.JpaTestConfig;
+import com.example.istio.inventory.model.InventoryItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfig.class)
+// Every change commits on its own, as it does from the services
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryItemRepositoryTest {
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        inventoryItemRepository.deleteAll();
+        inventoryItemRepository.save(InventoryItem.builder()
+                .productId("PROD-1")
+                .productName("Laptop")
+                .category("Electronics")
+                .quantity(100)
+                .build());
+    }
+
+    @Test
+    void stockChangesDoNotReachTheCatalogDelta() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime since = LocalDateTime.now();
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> inventoryItemRepository.adjustQuantity("PROD-1", -5));
+        InventoryItem item = inventoryItemRepository.findById("PROD-1").orElseThrow();
+        item.setQuantity(item.getQuantity() - 5);
+        inventoryItemRepository.save(item);
+
+        InventoryItem adjusted = inventoryItemRepository.findById("PROD-1").orElseThrow();
+        assertThat(adjusted.getLastUpdated()).isAfterOrEqualTo(since);
+        assertThat(adjusted.getCatalogUpdated()).isBefore(since);
+        assertThat(inventoryItemRepository.findByCatalogUpdatedGreaterThanEqual(since)).isEmpty();
+    }
+
+    @Test
+    void renamingMovesTheCatalogTimestamp() throws InterruptedException {
+        Thread.sleep(5);
+        LocalDateTime since = LocalDateTime.now();
+        InventoryItem item = inventoryItemRepository.findById("PROD-1").orElseThrow();
+        item.setProductName("Laptop 13\"");
+        inventoryItemRepository.save(item);
+
+        assertThat(inventoryItemRepository.findByCatalogUpdatedGreaterThanEqual(since))
+                .extracting(InventoryItem::getProductName)
+                .containsExactly("Laptop 13\"");
+    }
+}
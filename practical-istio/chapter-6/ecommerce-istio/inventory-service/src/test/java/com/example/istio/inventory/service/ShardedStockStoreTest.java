@@ -0,0 +1,163 @@
+package com.example.istio.inventory.service;
+
+import com.example.istio.inventory.JpaTestConfig;
+import com.example.istio.inventory.model.InventoryItem;
+import com.example.istio.inventory.model.ShardLease;
+import com.example.istio.inventory.model.StockChangedEvent;
+import com.example.istio.inventory.repository.InventoryItemRepository;
+import com.example.istio.inventory.repository.ShardLeaseRepository;
+import com.example.istio.inventory.shard.ShardOwnership;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfig.class)
+// Leases and adjustments commit on their own, as they do in the running service
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardedStockStoreTest {
+
+    private static final int SHARD_COUNT = 8;
+    private static final String PRODUCT = "PROD-1";
+
+    @Autowired
+    private ShardLeaseRepository leaseRepository;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ShardOwnership ownership;
+    private ShardedStockStore store;
+    private int shard;
+    private List<String> shardProducts;
+
+    @BeforeEach
+    void setUp() {
+        leaseRepository.deleteAll();
+        inventoryItemRepository.deleteAll();
+        inventoryItemRepository.saveAll(IntStream.rangeClosed(1, 40)
+                .mapToObj(i -> InventoryItem.builder()
+                        .productId("PROD-" + i)
+                        .productName("Product " + i)
+                        .category("Books")
+                        .quantity(100)
+                        .build())
+                .toList());
+        leaseRepository.saveAll(IntStream.range(0, SHARD_COUNT)
+                .mapToObj(shardId -> ShardLease.builder().shardId(shardId).build())
+                .toList());
+
+        ownership = new ShardOwnership(leaseRepository, meterRegistry, "replica-a", SHARD_COUNT,
+                Duration.ofSeconds(15), false, "jdbc:h2:tcp://shared/inventorydb");
+        StockLevelAggregator aggregator = new StockLevelAggregator(meterRegistry, event -> {
+        }, 10, 5, false);
+        store = new ShardedStockStore(ownership, inventoryItemRepository, aggregator, meterRegistry,
+                Duration.ofSeconds(10));
+
+        shard = ownership.shardOf(PRODUCT);
+        shardProducts = IntStream.rangeClosed(1, 40)
+                .mapToObj(i -> "PROD-" + i)
+                .filter(productId -> ownership.shardOf(productId) == shard)
+                .toList();
+        store.availableQuantity(PRODUCT);
+        ownership.maintainLeases();
+    }
+
+    @Test
+    void claimedShardIsLoadedWhole() {
+        assertThat(ownership.owns(shard)).isTrue();
+        assertThat(categoryTotal()).isEqualTo(100.0 * shardProducts.size());
+
+        shardProducts.forEach(store::availableQuantity);
+        assertThat(requests("hit")).isEqualTo(shardProducts.size());
+        assertThat(requests("miss")).isZero();
+    }
+
+    @Test
+    void lateEventsDoNotRollTheLevelBack() {
+        store.onStockChanged(new StockChangedEvent(PRODUCT, "Books", 90, 80, 2));
+        store.onStockChanged(new StockChangedEvent(PRODUCT, "Books", 100, 90, 1));
+
+        assertThat(store.availableQuantity(PRODUCT)).contains(80);
+        assertThat(categoryTotal()).isEqualTo(100.0 * shardProducts.size() - 20);
+    }
+
+    @Test
+    void olderLoadDoesNotOverwriteNewerLevel() {
+        StockLevel level = new StockLevel(PRODUCT, "Books", 80, 2);
+
+        assertThat(level.advanceTo(100, 0)).isEmpty();
+        assertThat(level.advanceTo(90, 2)).isEmpty();
+        assertThat(level.advanceTo(70, 3)).hasValue(80);
+        assertThat(level.getQuantity()).isEqualTo(70);
+    }
+
+    @Test
+    void adjustmentOnAnotherReplicaReachesTheOwnerThroughSync() {
+        // Served by a replica that does not own the shard: no event reaches the owner
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> inventoryItemRepository.adjustQuantity(PRODUCT, -30));
+        assertThat(store.availableQuantity(PRODUCT)).contains(100);
+
+        store.syncOwnedShards();
+
+        assertThat(store.availableQuantity(PRODUCT)).contains(70);
+        assertThat(categoryTotal()).isEqualTo(100.0 * shardProducts.size() - 30);
+
+        // The owner's own event for the same change arriving afterwards is a no-op
+        store.onStockChanged(new StockChangedEvent(PRODUCT, "Books", 100, 70, 1));
+        assertThat(categoryTotal()).isEqualTo(100.0 * shardProducts.size() - 30);
+    }
+
+    @Test
+    void productAddedLaterIsGivenItsShardAndSynced() {
+        String added = IntStream.rangeClosed(1, 1000)
+                .mapToObj(i -> "NEW-" + i)
+                .filter(productId -> ownership.shardOf(productId) == shard)
+                .findFirst()
+                .orElseThrow();
+        inventoryItemRepository.save(InventoryItem.builder()
+                .productId(added)
+                .productName("Added")
+                .category("Books")
+                .quantity(20)
+                .build());
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> inventoryItemRepository.adjustQuantity(added, -5));
+
+        store.syncOwnedShards();
+
+        assertThat(inventoryItemRepository.findById(added)).get()
+                .extracting(InventoryItem::getShardId).isEqualTo(shard);
+        assertThat(inventoryItemRepository.findProductIdsWithoutShard()).isEmpty();
+        assertThat(store.availableQuantity(added)).contains(15);
+        assertThat(requests("miss")).isZero();
+        assertThat(categoryTotal()).isEqualTo(100.0 * shardProducts.size() + 15);
+    }
+
+    private double categoryTotal() {
+        return meterRegistry.get("inventory.stock.category.level").tag("category", "Books").gauge().value();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.counter("inventory.stock.requests", "result", result).count();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.istio.inventory.service;
+
+import com.example.istio.inventory.model.StockThresholdEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockAlertListenerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void countsAlertsByTypeAndCategory() {
+        StockAlertListener listener = new StockAlertListener(meterRegistry, true, false);
+
+        listener.onThresholdCrossed(event(StockThresholdEvent.Type.LOW_STOCK, "Books"));
+        listener.onThresholdCrossed(event(StockThresholdEvent.Type.LOW_STOCK, "Books"));
+        listener.onThresholdCrossed(event(StockThresholdEvent.Type.REORDER, null));
+
+        assertThat(alerts("LOW_STOCK", "Books")).isEqualTo(2.0);
+        assertThat(alerts("REORDER", "unknown")).isEqualTo(1.0);
+    }
+
+    @Test
+    void countsAlertsEvenWithLoggingDisabled() {
+        StockAlertListener listener = new StockAlertListener(meterRegistry, false, false);
+
+        listener.onThresholdCrossed(event(StockThresholdEvent.Type.LOW_STOCK, "Books"));
+
+        assertThat(alerts("LOW_STOCK", "Books")).isEqualTo(1.0);
+    }
+
+    private double alerts(String type, String category) {
+        return meterRegistry.get("inventory.stock.alerts").tag("type", type).tag("category", category)
+                .counter().count();
+    }
+
+    private static StockThresholdEvent event(StockThresholdEvent.Type type, String category) {
+        return new StockThresholdEvent("PROD-1", category, type, 4, 5);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.istio.inventory.service;
+
+import com.example.istio.inventory.model.StockChangedEvent;
+import com.example.istio.inventory.model.StockThresholdEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockLevelAggregatorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+    // Low stock at 10, reorder at 5
+    private final StockLevelAggregator aggregator = new StockLevelAggregator(meterRegistry, published::add,
+            10, 5, true);
+
+    @Test
+    void crossingTheLowStockThresholdFiresOnce() {
+        aggregator.onStockChanged(change(12, 10));
+        aggregator.onStockChanged(change(10, 8));
+
+        assertThat(published).containsExactly(
+                new StockThresholdEvent("PROD-1", "Books", StockThresholdEvent.Type.LOW_STOCK, 10, 10));
+    }
+
+    @Test
+    void dropPastBothThresholdsFiresBoth() {
+        aggregator.onStockChanged(change(20, 3));
+
+        assertThat(published).extracting(event -> ((StockThresholdEvent) event).type())
+                .containsExactly(StockThresholdEvent.Type.LOW_STOCK, StockThresholdEvent.Type.REORDER);
+    }
+
+    @Test
+    void restockingDoesNotFire() {
+        aggregator.onStockChanged(change(3, 50));
+        aggregator.onStockChanged(change(50, 11));
+
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void gaugesFollowTrackedLevels() {
+        StockLevel laptop = new StockLevel("PROD-1", "Books", 30, 1);
+        StockLevel novel = new StockLevel("PROD-2", "Books", 12, 1);
+        aggregator.track(laptop);
+        aggregator.track(novel);
+
+        laptop.advanceTo(25, 2).ifPresent(previous -> aggregator.quantityChanged(laptop, previous, 25));
+
+        assertThat(categoryTotal()).isEqualTo(37.0);
+        assertThat(meterRegistry.get("inventory.stock.level").tag("product_id", "PROD-1").gauge().value())
+                .isEqualTo(25.0);
+
+        aggregator.untrack(novel);
+
+        assertThat(categoryTotal()).isEqualTo(25.0);
+        assertThat(meterRegistry.find("inventory.stock.level").tag("product_id", "PROD-2").gauge()).isNull();
+    }
+
+    private double categoryTotal() {
+        return meterRegistry.get("inventory.stock.category.level").tag("category", "Books").gauge().value();
+    }
+
+    private static StockChangedEvent change(int previousQuantity, int quantity) {
+        return new StockChangedEvent("PROD-1", "Books", previousQuantity, quantity, 1);
+    }
+}
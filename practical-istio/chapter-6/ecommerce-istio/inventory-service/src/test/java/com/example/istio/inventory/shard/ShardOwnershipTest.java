@@ -0,0 +1,220 @@
+package com.example.istio.inventory.shard;
+
+import com.example.istio.inventory.JpaTestConfig;
+import com.example.istio.inventory.model.InventoryItem;
+import com.example.istio.inventory.model.ShardLease;
+import com.example.istio.inventory.repository.InventoryItemRepository;
+import com.example.istio.inventory.repository.ShardLeaseRepository;
+import com.example.istio.inventory.service.ShardedStockStore;
+import com.example.istio.inventory.service.StockLevelAggregator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Several replicas in one JVM sharing one lease table, as pods share the inventory database
+ */
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfig.class)
+// Every lease update commits on its own, as it does from the scheduled task
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardOwnershipTest {
+
+    private static final int SHARD_COUNT = 8;
+
+    @Autowired
+    private ShardLeaseRepository leaseRepository;
+
+    @Autowired
+    private InventoryItemRepository inventoryItemRepository;
+
+    @BeforeEach
+    void resetDatabase() {
+        leaseRepository.deleteAll();
+        inventoryItemRepository.deleteAll();
+        inventoryItemRepository.saveAll(IntStream.rangeClosed(1, 40)
+                .mapToObj(i -> InventoryItem.builder()
+                        .productId("PROD-" + i)
+                        .productName("Product " + i)
+                        .category("Books")
+                        .quantity(100)
+                        .build())
+                .toList());
+    }
+
+    @Test
+    void requestsOnlyRecordDemandAndTheLeaseTaskClaimsTheShard() {
+        Replica a = new Replica("replica-a");
+        int shard = a.ownership.shardOf("PROD-1");
+
+        assertThat(a.store.availableQuantity("PROD-1")).contains(100);
+        assertThat(leaseRepository.findById(shard)).get().extracting(ShardLease::getOwner).isNull();
+
+        a.ownership.maintainLeases();
+        a.store.availableQuantity("PROD-1");
+        a.store.availableQuantity("PROD-1");
+
+        assertThat(a.ownership.owns(shard)).isTrue();
+        assertThat(leaseRepository.findById(shard)).get().extracting(ShardLease::getOwner).isEqualTo("replica-a");
+        // The claim loaded the whole shard, so both requests are served from memory
+        assertThat(a.requests("not_owned")).isEqualTo(1);
+        assertThat(a.requests("miss")).isZero();
+        assertThat(a.requests("hit")).isEqualTo(2);
+    }
+
+    @Test
+    void routedShardsEndUpWithExactlyOneOwner() {
+        List<Replica> replicas = List.of(new Replica("replica-a"), new Replica("replica-b"), new Replica("replica-c"));
+
+        // Consistent-hash routing by shard number: every shard reaches exactly one replica
+        for (int i = 1; i <= 40; i++) {
+            String productId = "PROD-" + i;
+            int shard = replicas.get(0).ownership.shardOf(productId);
+            replicas.get(shard % replicas.size()).store.availableQuantity(productId);
+        }
+        replicas.forEach(replica -> replica.ownership.maintainLeases());
+
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            int owned = shard;
+            assertThat(replicas.stream().filter(replica -> replica.ownership.owns(owned)).count())
+                    .as("owners of shard %d", shard)
+                    .isEqualTo(1);
+            assertThat(replicas.get(shard % replicas.size()).ownership.owns(shard)).isTrue();
+        }
+    }
+
+    @Test
+    void shardIsHandedOverWhenRoutingMovesItForGood() {
+        Replica a = new Replica("replica-a");
+        Replica b = new Replica("replica-b");
+        int shard = a.ownership.shardOf("PROD-1");
+        a.store.availableQuantity("PROD-1");
+        a.ownership.maintainLeases();
+        a.store.availableQuantity("PROD-1");
+
+        // Routing now sends the shard to b; the first round of demand alone does not ask for it
+        b.store.availableQuantity("PROD-1");
+        b.ownership.maintainLeases();
+        assertThat(leaseRepository.findById(shard)).get()
+                .extracting(ShardLease::getHandoffRequestedBy).isNull();
+
+        b.store.availableQuantity("PROD-1");
+        b.ownership.maintainLeases();
+        assertThat(leaseRepository.findById(shard)).get()
+                .extracting(ShardLease::getHandoffRequestedBy).isEqualTo("replica-b");
+
+        a.ownership.maintainLeases();
+        assertThat(a.ownership.owns(shard)).isFalse();
+
+        b.store.availableQuantity("PROD-1");
+        b.ownership.maintainLeases();
+        assertThat(b.ownership.owns(shard)).isTrue();
+        assertThat(a.ownership.owns(shard)).isFalse();
+
+        // a dropped its in-memory copy with the shard and reads through again, as before its claim
+        a.store.availableQuantity("PROD-1");
+        assertThat(a.requests("not_owned")).isEqualTo(2);
+    }
+
+    @Test
+    void stragglerRequestsDoNotPullAShardBack() {
+        Replica a = new Replica("replica-a");
+        Replica b = new Replica("replica-b");
+        int shard = a.ownership.shardOf("PROD-1");
+        b.store.availableQuantity("PROD-1");
+        b.ownership.maintainLeases();
+
+        // A request still in flight to the previous owner
+        a.store.availableQuantity("PROD-1");
+        a.ownership.maintainLeases();
+        b.ownership.maintainLeases();
+
+        assertThat(b.ownership.owns(shard)).isTrue();
+        assertThat(a.ownership.owns(shard)).isFalse();
+        assertThat(leaseRepository.findById(shard)).get()
+                .extracting(ShardLease::getHandoffRequestedBy).isNull();
+    }
+
+    @Test
+    void unownedShardsAreClaimedSoTheGaugesCoverEveryProduct() {
+        Replica a = new Replica("replica-a", true);
+
+        a.ownership.maintainLeases();
+
+        assertThat(a.ownership.ownedShards()).hasSize(SHARD_COUNT);
+        assertThat(a.meterRegistry.get("inventory.stock.category.level").tag("category", "Books").gauge().value())
+                .isEqualTo(40 * 100.0);
+    }
+
+    @Test
+    void shardHandedOverIsNotClaimedBackAsUnowned() {
+        Replica a = new Replica("replica-a", true);
+        Replica b = new Replica("replica-b");
+        int shard = a.ownership.shardOf("PROD-1");
+        a.ownership.maintainLeases();
+
+        b.store.availableQuantity("PROD-1");
+        b.ownership.maintainLeases();
+        b.store.availableQuantity("PROD-1");
+        b.ownership.maintainLeases();
+        a.ownership.maintainLeases();
+
+        // Reserved for b, which takes it on its next run
+        assertThat(a.ownership.owns(shard)).isFalse();
+        b.store.availableQuantity("PROD-1");
+        b.ownership.maintainLeases();
+        assertThat(b.ownership.owns(shard)).isTrue();
+        assertThat(a.ownership.ownedShards()).hasSize(SHARD_COUNT - 1);
+    }
+
+    @Test
+    void shardsReleasedOnShutdownAreClaimedByTheRemainingReplicas() {
+        Replica a = new Replica("replica-a", true);
+        Replica b = new Replica("replica-b", true);
+        a.ownership.maintainLeases();
+        b.ownership.maintainLeases();
+        assertThat(b.ownership.ownedShards()).isEmpty();
+
+        a.ownership.releaseAll();
+        b.ownership.maintainLeases();
+
+        assertThat(b.ownership.ownedShards()).hasSize(SHARD_COUNT);
+    }
+
+    private class Replica {
+
+        private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final ShardOwnership ownership;
+        private final ShardedStockStore store;
+
+        Replica(String instanceId) {
+            this(instanceId, false);
+        }
+
+        Replica(String instanceId, boolean claimUnowned) {
+            ownership = new ShardOwnership(leaseRepository, meterRegistry, instanceId, SHARD_COUNT,
+                    Duration.ofSeconds(15), claimUnowned, "jdbc:h2:tcp://shared/inventorydb");
+            ownership.initializeLeases();
+            StockLevelAggregator aggregator = new StockLevelAggregator(meterRegistry, event -> {
+            }, 10, 5, false);
+            store = new ShardedStockStore(ownership, inventoryItemRepository, aggregator, meterRegistry,
+                    Duration.ofSeconds(10));
+        }
+
+        double requests(String result) {
+            return meterRegistry.counter("inventory.stock.requests", "result", result).count();
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.example.istio.order;
 
+import com.example.istio.order.warmup.WarmupTransport;
 import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 import java.time.Duration;
 
 @SpringBootApplication
+@EnableScheduling
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
@@ -21,4 +26,18 @@ public class OrderServiceApplication {
         // Enables @Timed annotation for monitoring method execution time
         return new TimedAspect(registry);
     }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, WarmupTransport warmupTransport,
+                                     @Value("${service.inventory.timeout}") int inventoryTimeout,
+                                     @Value("${service.payment.timeout}") int paymentTimeout) {
+        int timeout = Math.max(inventoryTimeout, paymentTimeout);
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        // Calls made by the JIT warm-up are answered in-process, all others go out as usual
+        return builder
+                .requestFactory(() -> warmupTransport.wrap(requestFactory))
+                .build();
+    }
 }
\ No newline at end of file
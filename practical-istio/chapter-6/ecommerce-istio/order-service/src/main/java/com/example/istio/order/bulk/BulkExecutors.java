@@ -0,0 +1,94 @@
+package com.example.istio.order.bulk;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.opentelemetry.context.Context;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools shared by all bulk order requests.
+ * The pipeline pool has room for the reader and stage workers of max-concurrent-requests requests,
+ * so an admitted request always gets its threads; BulkOrderProcessor turns further requests away.
+ * Inventory checks of all requests share one fixed pool. Held by this bean rather than exposed as
+ * Executor beans, which would replace the applicationTaskExecutor running the streaming responses.
+ */
+@Component
+public class BulkExecutors {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final int maxConcurrentRequests;
+    private final ThreadPoolExecutor pipeline;
+    private final ThreadPoolExecutor checkPool;
+    private final ExecutorService checks;
+
+    public BulkExecutors(MeterRegistry meterRegistry,
+                         @Value("${order.bulk.max-concurrent-requests:4}") int maxConcurrentRequests,
+                         @Value("${order.bulk.validate-workers:2}") int validateWorkers,
+                         @Value("${order.bulk.reserve-workers:1}") int reserveWorkers,
+                         @Value("${order.bulk.persist-workers:2}") int persistWorkers,
+                         @Value("${order.bulk.payment-workers:8}") int paymentWorkers,
+                         @Value("${order.bulk.check-threads:16}") int checkThreads) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        // One reader per request next to its stage workers
+        int threadsPerRequest = 1 + validateWorkers + reserveWorkers + persistWorkers + paymentWorkers;
+        this.pipeline = new ThreadPoolExecutor(0, maxConcurrentRequests * threadsPerRequest,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new SynchronousQueue<>(), daemonThreads("bulk-pipeline-"));
+        // Each reserve worker queues at most one batch's distinct products; beyond that it checks itself
+        this.checkPool = new ThreadPoolExecutor(checkThreads, checkThreads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(checkThreads * 16),
+                daemonThreads("bulk-check-"), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.checkPool.allowCoreThreadTimeOut(true);
+        this.checks = Context.taskWrapping(checkPool);
+        new ExecutorServiceMetrics(pipeline, "bulk.pipeline", List.of()).bindTo(meterRegistry);
+        new ExecutorServiceMetrics(checkPool, "bulk.check", List.of()).bindTo(meterRegistry);
+    }
+
+    public int maxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * Long-running reader and stage worker tasks; rejects tasks beyond its size instead of queueing them
+     */
+    ThreadPoolExecutor pipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Inventory checks, run in the submitter's OpenTelemetry context
+     */
+    ExecutorService checks() {
+        return checks;
+    }
+
+    ThreadPoolExecutor checkPool() {
+        return checkPool;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pipeline.shutdownNow();
+        checkPool.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
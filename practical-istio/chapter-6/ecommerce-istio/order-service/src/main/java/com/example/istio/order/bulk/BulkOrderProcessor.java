@@ -0,0 +1,473 @@
+package com.example.istio.order.bulk;
+
+import com.example.istio.order.client.InventoryClient;
+import com.example.istio.order.client.PaymentClient;
+import com.example.istio.order.entity.OrderEntity;
+import com.example.istio.order.model.*;
+import com.example.istio.order.repository.OrderRepository;
+import com.example.istio.order.service.ProductCatalog;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Processes a streamed JSON array of OrderRequests as a staged pipeline:
+ * validate, batched inventory allocation, batched persistence, payment.
+ * Every stage has a bounded queue and its own workers; results are written as NDJSON
+ * while the request is still being read, so memory stays bounded by the queue sizes.
+ * Workers and inventory checks run on the shared pools of BulkExecutors, and at most
+ * max-concurrent-requests requests are admitted at a time.
+ * If the response can no longer be written, every stage is cancelled and the request is not read further.
+ */
+@Slf4j
+@Component
+public class BulkOrderProcessor {
+
+    private static final long HANDOVER_POLL_MILLIS = 100;
+
+    /**
+     * Mutable state of one order as it moves through the stages
+     */
+    private static final class BulkItem {
+        final int index;
+        final OrderRequest request;
+        Order order;
+
+        BulkItem(int index, OrderRequest request) {
+            this.index = index;
+            this.request = request;
+        }
+    }
+
+    private final InventoryClient inventoryClient;
+    private final PaymentClient paymentClient;
+    private final ProductCatalog productCatalog;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    // Writing a result must not close the response stream, as ObjectMapper.writeValue would
+    private final ObjectWriter resultWriter;
+    private final MeterRegistry meterRegistry;
+    private final Tracer tracer;
+    private final BulkExecutors bulkExecutors;
+    // One permit per request the shared pipeline pool has threads for
+    private final Semaphore admissions;
+
+    @Value("${order.bulk.batch-size:50}")
+    private int batchSize;
+
+    @Value("${order.bulk.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${order.bulk.validate-workers:2}")
+    private int validateWorkers;
+
+    @Value("${order.bulk.reserve-workers:1}")
+    private int reserveWorkers;
+
+    @Value("${order.bulk.persist-workers:2}")
+    private int persistWorkers;
+
+    @Value("${order.bulk.payment-workers:8}")
+    private int paymentWorkers;
+
+    public BulkOrderProcessor(InventoryClient inventoryClient, PaymentClient paymentClient,
+                              ProductCatalog productCatalog, OrderRepository orderRepository,
+                              PlatformTransactionManager transactionManager, Validator validator,
+                              ObjectMapper objectMapper, MeterRegistry meterRegistry, Tracer tracer,
+                              BulkExecutors bulkExecutors) {
+        this.inventoryClient = inventoryClient;
+        this.paymentClient = paymentClient;
+        this.productCatalog = productCatalog;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.resultWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+        this.bulkExecutors = bulkExecutors;
+        this.admissions = new Semaphore(bulkExecutors.maxConcurrentRequests());
+        meterRegistry.gauge("order.bulk.requests.active", admissions,
+                permits -> bulkExecutors.maxConcurrentRequests() - permits.availablePermits());
+    }
+
+    /**
+     * Takes one of the max-concurrent-requests slots, or returns false while all are in use.
+     * Every successful call must be followed by process, which gives the slot back.
+     */
+    public boolean tryAdmit() {
+        if (admissions.tryAcquire()) {
+            return true;
+        }
+        meterRegistry.counter("order.bulk.requests.rejected").increment();
+        return false;
+    }
+
+    /**
+     * Processes an admitted request; its slot is given back once the request and all its threads are done
+     */
+    public void process(InputStreamSource requestBody, OutputStream responseBody) throws IOException {
+        RequestThreads threads = new RequestThreads(bulkExecutors.pipeline(), admissions::release);
+        try {
+            process(requestBody, responseBody, threads);
+        } finally {
+            threads.finished();
+        }
+    }
+
+    private void process(InputStreamSource requestBody, OutputStream responseBody,
+                         RequestThreads threads) throws IOException {
+        Span span = tracer.spanBuilder("processBulkOrders").startSpan();
+        Context context = Context.current().with(span);
+
+        BlockingQueue<BulkOrderResult> results = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger submitted = new AtomicInteger();
+        AtomicBoolean readerDone = new AtomicBoolean();
+        // Set once the response cannot be written anymore; blocked hand-overs give up
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicReference<String> readError = new AtomicReference<>();
+        // Stock allocated to this request's confirmed orders so far, across all batches
+        Map<String, Integer> allocated = new HashMap<>();
+        // Upstream first, in the order the reader closes them
+        List<PipelineStage<BulkItem>> stages = new ArrayList<>();
+
+        Consumer<BulkOrderResult> emit = result -> {
+            meterRegistry.counter("order.bulk.results", "status", String.valueOf(result.getStatus())).increment();
+            try {
+                while (!results.offer(result, HANDOVER_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (cancelled.get()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (Scope scope = span.makeCurrent()) {
+            // Stages are created downstream first so each can hand over to the next
+            PipelineStage<BulkItem> payment = new PipelineStage<>("payment", paymentWorkers, queueCapacity,
+                    batchSize, guarded("payment", batch -> pay(batch, emit), emit), context, threads);
+            stages.add(0, payment);
+            PipelineStage<BulkItem> persist = new PipelineStage<>("persist", persistWorkers, queueCapacity,
+                    batchSize, guarded("persist", batch -> persist(batch, payment, emit), emit), context, threads);
+            stages.add(0, persist);
+            PipelineStage<BulkItem> reserve = new PipelineStage<>("reserve", reserveWorkers, queueCapacity,
+                    batchSize, guarded("reserve", batch -> reserve(batch, persist, allocated), emit), context,
+                    threads);
+            stages.add(0, reserve);
+            PipelineStage<BulkItem> validate = new PipelineStage<>("validate", validateWorkers, queueCapacity,
+                    1, guarded("validate", batch -> validate(batch, reserve, emit), emit), context, threads);
+            stages.add(0, validate);
+
+            threads.execute(context.wrap(() -> {
+                try {
+                    readRequests(requestBody.getInputStream(), validate, submitted);
+                } catch (CancellationException e) {
+                    log.debug("Stopped reading bulk order request: {}", e.getMessage());
+                } catch (Exception e) {
+                    log.warn("Bulk order request could not be read completely", e);
+                    readError.set(e.getMessage());
+                } finally {
+                    try {
+                        for (PipelineStage<BulkItem> stage : stages) {
+                            stage.closeAndAwait();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    readerDone.set(true);
+                }
+            }));
+
+            int written = 0;
+            // Results are written in completion order while the request is still streaming in.
+            // The reader is done only after every stage finished, so no result can follow.
+            while (!readerDone.get() || !results.isEmpty()) {
+                BulkOrderResult result = results.poll(HANDOVER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    resultWriter.writeValue(responseBody, result);
+                    responseBody.write('\n');
+                    written++;
+                    if (results.isEmpty()) {
+                        responseBody.flush();
+                    }
+                }
+            }
+            if (written < submitted.get()) {
+                log.error("Bulk order request lost the results of {} orders", submitted.get() - written);
+                resultWriter.writeValue(responseBody,
+                        Map.of("error", (submitted.get() - written) + " orders have no result"));
+                responseBody.write('\n');
+            }
+            if (readError.get() != null) {
+                resultWriter.writeValue(responseBody, Map.of("error", "Request body aborted: " + readError.get()));
+                responseBody.write('\n');
+            }
+            responseBody.flush();
+
+            span.setAttribute("orders.count", written);
+            span.setStatus(readError.get() == null && written == submitted.get() ? StatusCode.OK : StatusCode.ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            span.setStatus(StatusCode.ERROR, "Interrupted");
+        } catch (IOException | RuntimeException e) {
+            span.setStatus(StatusCode.ERROR, "Response aborted: " + e.getMessage());
+            throw e;
+        } finally {
+            if (!readerDone.get()) {
+                // Client gone, writer failed or no threads left: stop the stages and the reader
+                // instead of leaving them blocked
+                cancelled.set(true);
+                stages.forEach(PipelineStage::cancel);
+                threads.interruptAll();
+            }
+            span.end();
+        }
+    }
+
+    private void readRequests(InputStream requestBody, PipelineStage<BulkItem> validate,
+                              AtomicInteger submitted) throws IOException, InterruptedException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(requestBody)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of orders");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                OrderRequest request = objectMapper.readValue(parser, OrderRequest.class);
+                // Blocks while the validate queue is full
+                validate.submit(new BulkItem(submitted.get(), request));
+                submitted.incrementAndGet();
+            }
+        }
+    }
+
+    private void validate(List<BulkItem> batch, PipelineStage<BulkItem> reserve,
+                          Consumer<BulkOrderResult> emit) {
+        for (BulkItem item : batch) {
+            Set<ConstraintViolation<OrderRequest>> violations = validator.validate(item.request);
+            if (!violations.isEmpty()) {
+                emit.accept(failure(item, violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .collect(Collectors.joining(", ", "Validation failed: ", ""))));
+                continue;
+            }
+            item.order = item.request.toOrder();
+            item.order.setCreatedAt(LocalDateTime.now());
+            item.order.setStatus(OrderStatus.CREATED);
+            submit(reserve, item);
+        }
+    }
+
+    /**
+     * Checks the distinct products of the batch concurrently and allocates the returned stock to
+     * the orders in arrival order. Checks reserve nothing, so stock allocated to earlier orders of
+     * the same request is subtracted, and no two batches oversubscribe a product.
+     */
+    private void reserve(List<BulkItem> batch, PipelineStage<BulkItem> persist,
+                         Map<String, Integer> allocated) {
+        Timer.Sample timer = Timer.start(meterRegistry);
+
+        List<OrderItem> allItems = new ArrayList<>();
+        Map<String, Integer> demand = new LinkedHashMap<>();
+        for (BulkItem item : batch) {
+            for (OrderItem orderItem : item.order.getItems()) {
+                allItems.add(orderItem);
+                demand.merge(orderItem.getProductId(), orderItem.getQuantity(), Integer::sum);
+            }
+        }
+
+        // All checks start before the catalog lookup, which then overlaps with them
+        Map<String, CompletableFuture<Integer>> checks = new LinkedHashMap<>();
+        demand.forEach((productId, quantity) -> checks.put(productId,
+                CompletableFuture.supplyAsync(() -> availableStock(productId, quantity), bulkExecutors.checks())));
+
+        // One catalog lookup for all misses of the batch
+        productCatalog.enrich(allItems);
+
+        Map<String, Integer> available = new HashMap<>();
+        try {
+            checks.forEach((productId, check) -> available.put(productId, check.join()));
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        synchronized (allocated) {
+            for (BulkItem item : batch) {
+                Map<String, Integer> needed = item.order.getItems().stream()
+                        .collect(Collectors.toMap(OrderItem::getProductId, OrderItem::getQuantity, Integer::sum));
+                boolean fits = needed.entrySet().stream()
+                        .allMatch(e -> available.getOrDefault(e.getKey(), 0)
+                                - allocated.getOrDefault(e.getKey(), 0) >= e.getValue());
+                if (fits) {
+                    needed.forEach((productId, quantity) -> allocated.merge(productId, quantity, Integer::sum));
+                    item.order.setStatus(OrderStatus.INVENTORY_CONFIRMED);
+                } else {
+                    item.order.setStatus(OrderStatus.FAILED);
+                }
+            }
+        }
+        batch.forEach(item -> submit(persist, item));
+
+        timer.stop(meterRegistry.timer("order.bulk.stage.time", "stage", "reserve"));
+    }
+
+    private int availableStock(String productId, int quantity) {
+        InventoryCheckResult result = inventoryClient.checkStock(productId, quantity);
+        if (result == null) {
+            return 0;
+        }
+        if (result.getAvailableQuantity() != null) {
+            return result.getAvailableQuantity();
+        }
+        return result.isAvailable() ? quantity : 0;
+    }
+
+    private void persist(List<BulkItem> batch, PipelineStage<BulkItem> payment,
+                         Consumer<BulkOrderResult> emit) {
+        Timer.Sample timer = Timer.start(meterRegistry);
+
+        for (BulkItem item : batch) {
+            item.order.calculateTotalAmount();
+            item.order.setUpdatedAt(LocalDateTime.now());
+        }
+        saveAll(batch);
+
+        for (BulkItem item : batch) {
+            if (item.order.getStatus() == OrderStatus.INVENTORY_CONFIRMED) {
+                submit(payment, item);
+            } else {
+                emit.accept(failure(item, "Insufficient inventory"));
+            }
+        }
+
+        timer.stop(meterRegistry.timer("order.bulk.stage.time", "stage", "persist"));
+    }
+
+    private void pay(List<BulkItem> batch, Consumer<BulkOrderResult> emit) {
+        Timer.Sample timer = Timer.start(meterRegistry);
+
+        for (BulkItem item : batch) {
+            Order order = item.order;
+            try {
+                PaymentResponse payment = paymentClient.processPayment(
+                        new PaymentRequest(order.getOrderId(), order.getTotalAmount()));
+                if (payment != null && payment.isSuccess()) {
+                    order.setStatus(OrderStatus.COMPLETED);
+                    order.setPaymentId(payment.getPaymentId());
+                } else {
+                    order.setStatus(OrderStatus.PAYMENT_FAILED);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Payment failed for bulk order {}: {}", order.getOrderId(), e.getMessage());
+                order.setStatus(OrderStatus.PAYMENT_FAILED);
+            }
+            order.setUpdatedAt(LocalDateTime.now());
+        }
+        saveAll(batch);
+
+        for (BulkItem item : batch) {
+            boolean completed = item.order.getStatus() == OrderStatus.COMPLETED;
+            emit.accept(BulkOrderResult.builder()
+                    .index(item.index)
+                    .orderId(item.order.getOrderId())
+                    .status(item.order.getStatus())
+                    .message(completed ? "Order processed successfully" : "Payment processing failed")
+                    .totalAmount(item.order.getTotalAmount())
+                    .paymentId(item.order.getPaymentId())
+                    .build());
+        }
+
+        timer.stop(meterRegistry.timer("order.bulk.stage.time", "stage", "payment"));
+    }
+
+    private void saveAll(List<BulkItem> batch) {
+        List<OrderEntity> entities = batch.stream()
+                .map(item -> OrderEntity.fromOrder(item.order))
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> orderRepository.saveAll(entities));
+    }
+
+    /**
+     * Fails every order of a batch whose stage threw, so each order still gets a result
+     */
+    private Consumer<List<BulkItem>> guarded(String stage, Consumer<List<BulkItem>> handler,
+                                             Consumer<BulkOrderResult> emit) {
+        return batch -> {
+            try {
+                handler.accept(batch);
+            } catch (CancellationException e) {
+                // The response is gone, there is nobody left to report these orders to
+                log.debug("Bulk {} stage cancelled with {} orders", stage, batch.size());
+            } catch (RuntimeException e) {
+                log.error("Bulk {} stage failed for {} orders", stage, batch.size(), e);
+                meterRegistry.counter("order.errors",
+                        "error_type", e.getClass().getSimpleName()).increment();
+                batch.forEach(item -> emit.accept(failure(item, "Order processing failed: " + e.getMessage())));
+            }
+        };
+    }
+
+    private static void submit(PipelineStage<BulkItem> stage, BulkItem item) {
+        try {
+            stage.submit(item);
+        } catch (InterruptedException e) {
+            // Workers are only interrupted when the stages are cancelled
+            Thread.currentThread().interrupt();
+            CancellationException cancelled =
+                    new CancellationException("Interrupted while handing over order " + item.index);
+            cancelled.initCause(e);
+            throw cancelled;
+        }
+    }
+
+    private static BulkOrderResult failure(BulkItem item, String message) {
+        return BulkOrderResult.builder()
+                .index(item.index)
+                .orderId(item.order != null ? item.order.getOrderId() : null)
+                .status(OrderStatus.FAILED)
+                .message(message)
+                .build();
+    }
+}
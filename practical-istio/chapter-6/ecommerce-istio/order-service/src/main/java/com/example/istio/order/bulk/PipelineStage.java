@@ -0,0 +1,120 @@
+package com.example.istio.order.bulk;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One stage of the bulk order pipeline: a bounded input queue drained by a fixed number of
+ * workers, each handing up to batchSize items at a time to the handler.
+ * A full queue blocks the upstream producer, which keeps memory bounded.
+ * A cancelled stage drops its queue, stops its workers and fails every further submit; workers
+ * blocked in a handler are interrupted through the executor that runs them (RequestThreads).
+ */
+@Slf4j
+class PipelineStage<T> {
+
+    private static final long POLL_MILLIS = 50;
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final int batchSize;
+    private final Consumer<List<T>> handler;
+    private final CountDownLatch finished;
+
+    private volatile boolean closed;
+    private volatile boolean cancelled;
+
+    PipelineStage(String name, int workerCount, int capacity, int batchSize,
+                  Consumer<List<T>> handler, Context context, Executor executor) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.handler = handler;
+        this.finished = new CountDownLatch(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            try {
+                executor.execute(context.wrap(this::work));
+            } catch (RejectedExecutionException e) {
+                // Workers already started stop, and closeAndAwait does not wait for the missing ones
+                cancel();
+                for (int missing = i; missing < workerCount; missing++) {
+                    finished.countDown();
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Blocks while the queue is full
+     *
+     * @throws CancellationException if the stage is or gets cancelled meanwhile
+     */
+    void submit(T item) throws InterruptedException {
+        while (cancelled || !queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (cancelled) {
+                throw new CancellationException("Bulk stage " + name + " was cancelled");
+            }
+        }
+    }
+
+    /**
+     * Stops accepting work once the queue is drained and waits for the workers to finish
+     */
+    void closeAndAwait() throws InterruptedException {
+        closed = true;
+        finished.await();
+    }
+
+    /**
+     * Abandons the queued work, e.g. when the response can no longer be written
+     */
+    void cancel() {
+        cancelled = true;
+        closed = true;
+        queue.clear();
+    }
+
+    private void work() {
+        try {
+            drain();
+        } finally {
+            finished.countDown();
+        }
+    }
+
+    private void drain() {
+        List<T> batch = new ArrayList<>(batchSize);
+        try {
+            while (!cancelled && (!closed || !queue.isEmpty())) {
+                T first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                try {
+                    handler.accept(batch);
+                } catch (RuntimeException e) {
+                    // Handlers report per-order failures themselves; this is a bug guard
+                    log.error("Bulk stage {} failed on a batch of {}", name, batch.size(), e);
+                }
+                batch = new ArrayList<>(batchSize);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.istio.order.bulk;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the reader and stage workers of one bulk request on the shared pipeline pool.
+ * Knows which pool threads currently work for the request, so cancelling interrupts only those,
+ * and calls onFinished once the request and every task it started are done.
+ */
+class RequestThreads implements Executor {
+
+    private final Executor pool;
+    private final Runnable onFinished;
+    // One count is held by the request itself until finished()
+    private final AtomicInteger running = new AtomicInteger(1);
+    private final Set<Thread> threads = new HashSet<>();
+
+    RequestThreads(Executor pool, Runnable onFinished) {
+        this.pool = pool;
+        this.onFinished = onFinished;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        running.incrementAndGet();
+        try {
+            pool.execute(() -> {
+                Thread current = Thread.currentThread();
+                synchronized (threads) {
+                    threads.add(current);
+                }
+                try {
+                    task.run();
+                } finally {
+                    synchronized (threads) {
+                        threads.remove(current);
+                    }
+                    // An interrupt meant for this request must not reach the pool's next task
+                    Thread.interrupted();
+                    release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release();
+            throw e;
+        }
+    }
+
+    void interruptAll() {
+        synchronized (threads) {
+            threads.forEach(Thread::interrupt);
+        }
+    }
+
+    /**
+     * Called by the request once it starts no more tasks
+     */
+    void finished() {
+        release();
+    }
+
+    private void release() {
+        if (running.decrementAndGet() == 0) {
+            onFinished.run();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.istio.order.client;
+
+import com.example.istio.order.model.ProductInfo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Client for the product catalog exposed by inventory-service
+ */
+public interface CatalogClient {
+
+    /**
+     * Full catalog, used for the bulk load at startup
+     */
+    List<ProductInfo> findAll();
+
+    /**
+     * Products changed after the given time, used for incremental refreshes
+     */
+    List<ProductInfo> findUpdatedSince(LocalDateTime since);
+
+    /**
+     * Products for the given ids, in as few calls as the server's batch limit allows; unknown ids are omitted
+     */
+    List<ProductInfo> findByIds(Collection<String> productIds);
+}
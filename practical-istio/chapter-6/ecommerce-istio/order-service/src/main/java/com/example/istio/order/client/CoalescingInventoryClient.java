@@ -0,0 +1,137 @@
+package com.example.istio.order.client;
+
+import com.example.istio.order.model.InventoryCheckResult;
+import com.example.istio.order.model.OrderItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-flight wrapper around the transport inventory client.
+ * Concurrent checks of the same product share one downstream call; every caller then
+ * compares its own quantity with the returned stock level. An optional micro-TTL lets
+ * checks arriving just after a call completes reuse its answer too.
+ * Baskets go to the transport client unchanged, so gRPC keeps its one CheckBasket stream per shard.
+ */
+@Primary
+@Component
+@ConditionalOnProperty(name = "service.inventory.coalescing.enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingInventoryClient implements InventoryClient {
+
+    private record CachedResult(InventoryCheckResult result, long expiresAtNanos) {
+    }
+
+    private final InventoryClient delegate;
+    private final long ttlNanos;
+
+    private final Map<String, CompletableFuture<InventoryCheckResult>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, CachedResult> recent = new ConcurrentHashMap<>();
+
+    private final Counter downstreamCalls;
+    private final Counter collapsedCalls;
+    private final Counter cachedCalls;
+    private final AtomicLong totalChecks = new AtomicLong();
+    private final AtomicLong sharedChecks = new AtomicLong();
+
+    // The transport client (REST or gRPC); this bean itself is excluded as a candidate
+    public CoalescingInventoryClient(InventoryClient delegate, MeterRegistry meterRegistry,
+                                     @Value("${service.inventory.coalescing.ttl:0ms}") Duration ttl) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.downstreamCalls = meterRegistry.counter("inventory.check.requests", "source", "downstream");
+        this.collapsedCalls = meterRegistry.counter("inventory.check.requests", "source", "collapsed");
+        this.cachedCalls = meterRegistry.counter("inventory.check.requests", "source", "cache");
+        meterRegistry.gauge("inventory.check.collapse.ratio", this, client -> {
+            long total = client.totalChecks.get();
+            return total == 0 ? 0.0 : (double) client.sharedChecks.get() / total;
+        });
+    }
+
+    @Override
+    public InventoryCheckResult checkStock(String productId, int quantity) {
+        totalChecks.incrementAndGet();
+
+        if (ttlNanos > 0) {
+            CachedResult cached = recent.get(productId);
+            if (cached != null) {
+                if (System.nanoTime() - cached.expiresAtNanos() < 0) {
+                    sharedChecks.incrementAndGet();
+                    cachedCalls.increment();
+                    return evaluate(cached.result(), productId, quantity);
+                }
+                recent.remove(productId, cached);
+            }
+        }
+
+        CompletableFuture<InventoryCheckResult> call = new CompletableFuture<>();
+        CompletableFuture<InventoryCheckResult> existing = inFlight.putIfAbsent(productId, call);
+
+        if (existing != null) {
+            sharedChecks.incrementAndGet();
+            collapsedCalls.increment();
+            return evaluate(await(existing), productId, quantity);
+        }
+
+        downstreamCalls.increment();
+        try {
+            InventoryCheckResult result = delegate.checkStock(productId, quantity);
+            if (ttlNanos > 0 && result != null && result.getAvailableQuantity() != null) {
+                recent.put(productId, new CachedResult(result, System.nanoTime() + ttlNanos));
+            }
+            call.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(productId, call);
+        }
+    }
+
+    @Override
+    public List<InventoryCheckResult> checkBasket(List<OrderItem> items) {
+        return delegate.checkBasket(items);
+    }
+
+    /**
+     * Applies this caller's quantity to a shared stock answer
+     */
+    private InventoryCheckResult evaluate(InventoryCheckResult shared, String productId, int quantity) {
+        if (shared == null) {
+            return null;
+        }
+        if (shared.getAvailableQuantity() == null) {
+            // No stock level to compare against, ask for this quantity directly
+            downstreamCalls.increment();
+            return delegate.checkStock(productId, quantity);
+        }
+        return InventoryCheckResult.builder()
+                .productId(productId)
+                .available(shared.getAvailableQuantity() >= quantity)
+                .availableQuantity(shared.getAvailableQuantity())
+                .requestedQuantity(quantity)
+                .build();
+    }
+
+    private static InventoryCheckResult await(CompletableFuture<InventoryCheckResult> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
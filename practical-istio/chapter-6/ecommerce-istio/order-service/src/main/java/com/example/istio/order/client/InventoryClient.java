@@ -0,0 +1,32 @@
+package com.example.istio.order.client;
+
+import com.example.istio.order.model.InventoryCheckResult;
+import com.example.istio.order.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client for inventory-service availability checks
+ * Implementations are selected by the service.transport property
+ */
+public interface InventoryClient {
+
+    InventoryCheckResult checkStock(String productId, int quantity);
+
+    /**
+     * Checks every item of a basket, stopping at the first unavailable product.
+     * The returned list holds one result per checked item, in basket order.
+     */
+    default List<InventoryCheckResult> checkBasket(List<OrderItem> items) {
+        List<InventoryCheckResult> results = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            InventoryCheckResult result = checkStock(item.getProductId(), item.getQuantity());
+            results.add(result);
+            if (result == null || !result.isAvailable()) {
+                break;
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.istio.order.client;
+
+/**
+ * Consistent-hash routing key of a product's inventory shard.
+ * Sending the shard number rather than the product id makes Istio route a whole shard to one
+ * inventory replica, the unit that replica holds a lease on. Must match ShardOwnership.shardOf
+ * in inventory-service, and service.inventory.shard-count must equal inventory.sharding.shard-count.
+ */
+public final class InventoryShardKey {
+
+    private InventoryShardKey() {
+    }
+
+    public static String of(String productId, int shardCount) {
+        return Integer.toString(Math.floorMod(productId.hashCode(), shardCount));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.istio.order.client;
+
+import com.example.istio.order.model.PaymentRequest;
+import com.example.istio.order.model.PaymentResponse;
+
+/**
+ * Client for payment-service
+ * Implementations are selected by the service.transport property
+ */
+public interface PaymentClient {
+
+    PaymentResponse processPayment(PaymentRequest paymentRequest);
+}
@@ -0,0 +1,70 @@
+package com.example.istio.order.client;
+
+import com.example.istio.order.model.ProductInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * HTTP catalog client for inventory-service's /products endpoints
+ */
+@Component
+public class RestCatalogClient implements CatalogClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${service.inventory.url}")
+    private String inventoryServiceUrl;
+
+    // inventory-service rejects larger batches with BATCH_TOO_LARGE
+    @Value("${catalog.max-batch-size:500}")
+    private int maxBatchSize;
+
+    public RestCatalogClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public List<ProductInfo> findAll() {
+        return fetch(inventoryServiceUrl + "/products");
+    }
+
+    @Override
+    public List<ProductInfo> findUpdatedSince(LocalDateTime since) {
+        return fetch(UriComponentsBuilder.fromHttpUrl(inventoryServiceUrl + "/products")
+                .queryParam("updatedSince", since)
+                .toUriString());
+    }
+
+    /**
+     * One call per maxBatchSize ids; a cold cache can miss more than that in one bulk request
+     */
+    @Override
+    public List<ProductInfo> findByIds(Collection<String> productIds) {
+        List<String> ids = List.copyOf(productIds);
+        List<ProductInfo> found = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += maxBatchSize) {
+            ProductInfo[] products = restTemplate.postForObject(
+                    inventoryServiceUrl + "/products/batch",
+                    ids.subList(from, Math.min(from + maxBatchSize, ids.size())),
+                    ProductInfo[].class
+            );
+            if (products != null) {
+                found.addAll(Arrays.asList(products));
+            }
+        }
+        return found;
+    }
+
+    private List<ProductInfo> fetch(String url) {
+        ProductInfo[] products = restTemplate.getForObject(url, ProductInfo[].class);
+        return products == null ? List.of() : List.of(products);
+    }
+}
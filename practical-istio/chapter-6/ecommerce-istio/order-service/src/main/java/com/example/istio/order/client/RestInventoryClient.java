@@ -0,0 +1,53 @@
+package com.example.istio.order.client;
+
+import com.example.istio.order.model.InventoryCheckResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP/1.1 inventory client, one GET /check/{productId} per item.
+ * Each call carries the product's shard number in the shard header so Istio's consistent-hash
+ * load balancing sends it to the inventory replica owning that shard.
+ */
+@Component
+@ConditionalOnProperty(name = "service.transport", havingValue = "rest", matchIfMissing = true)
+public class RestInventoryClient implements InventoryClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${service.inventory.url}")
+    private String inventoryServiceUrl;
+
+    @Value("${service.inventory.shard-header:x-inventory-shard-key}")
+    private String shardHeader;
+
+    @Value("${service.inventory.shard-count:64}")
+    private int shardCount;
+
+    @Value("${service.inventory.caller-header:x-caller-id}")
+    private String callerHeader;
+
+    @Value("${spring.application.name}")
+    private String callerId;
+
+    public RestInventoryClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public InventoryCheckResult checkStock(String productId, int quantity) {
+        String url = inventoryServiceUrl + "/check/" + productId
+                + "?quantity=" + quantity;
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(shardHeader, InventoryShardKey.of(productId, shardCount));
+        // Identifies checkout traffic to inventory-service admission control
+        headers.set(callerHeader, callerId);
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers),
+                InventoryCheckResult.class).getBody();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.istio.order.client;
+
+import com.example.istio.order.model.PaymentRequest;
+import com.example.istio.order.model.PaymentResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * HTTP/1.1 payment client posting to /process
+ */
+@Component
+@ConditionalOnProperty(name = "service.transport", havingValue = "rest", matchIfMissing = true)
+public class RestPaymentClient implements PaymentClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${service.payment.url}")
+    private String paymentServiceUrl;
+
+    public RestPaymentClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public PaymentResponse processPayment(PaymentRequest paymentRequest) {
+        return restTemplate.postForObject(
+                paymentServiceUrl + "/process",
+                paymentRequest,
+                PaymentResponse.class
+        );
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.istio.order.client.grpc;
+
+import com.example.istio.order.client.InventoryClient;
+import com.example.istio.order.client.InventoryShardKey;
+import com.example.istio.order.grpc.inventory.InventoryServiceGrpc;
+import com.example.istio.order.grpc.inventory.StockCheckRequest;
+import com.example.istio.order.grpc.inventory.StockCheckResponse;
+import com.example.istio.order.model.InventoryCheckResult;
+import com.example.istio.order.model.OrderItem;
+import io.grpc.ClientInterceptor;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.stub.MetadataUtils;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC inventory client sharing one multiplexed HTTP/2 channel across all callers.
+ * Baskets are checked over one bidirectional stream per inventory shard instead of one request
+ * per item; a stream is routed as a whole, so each carries the routing key of its shard.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "service.transport", havingValue = "grpc")
+public class GrpcInventoryClient implements InventoryClient {
+
+    private final InventoryServiceGrpc.InventoryServiceBlockingStub blockingStub;
+    private final InventoryServiceGrpc.InventoryServiceStub asyncStub;
+    private final long timeoutMillis;
+    private final Metadata.Key<String> shardHeader;
+    private final int shardCount;
+    private final Metadata.Key<String> callerHeader;
+    private final String callerId;
+
+    public GrpcInventoryClient(@Qualifier("inventoryChannel") ManagedChannel inventoryChannel,
+                               @Value("${service.inventory.timeout}") long timeoutMillis,
+                               @Value("${service.inventory.shard-header:x-inventory-shard-key}") String shardHeader,
+                               @Value("${service.inventory.shard-count:64}") int shardCount,
+                               @Value("${service.inventory.caller-header:x-caller-id}") String callerHeader,
+                               @Value("${spring.application.name}") String callerId) {
+        this.blockingStub = InventoryServiceGrpc.newBlockingStub(inventoryChannel);
+        this.asyncStub = InventoryServiceGrpc.newStub(inventoryChannel);
+        this.timeoutMillis = timeoutMillis;
+        this.shardHeader = Metadata.Key.of(shardHeader, Metadata.ASCII_STRING_MARSHALLER);
+        this.shardCount = shardCount;
+        this.callerHeader = Metadata.Key.of(callerHeader, Metadata.ASCII_STRING_MARSHALLER);
+        this.callerId = callerId;
+    }
+
+    @Override
+    public InventoryCheckResult checkStock(String productId, int quantity) {
+        StockCheckResponse response = blockingStub
+                .withInterceptors(routedTo(InventoryShardKey.of(productId, shardCount)))
+                .withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+                .checkStock(toRequest(productId, quantity));
+        return toResult(response);
+    }
+
+    @Override
+    public List<InventoryCheckResult> checkBasket(List<OrderItem> items) {
+        Map<String, List<Integer>> positionsByShard = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            positionsByShard.computeIfAbsent(InventoryShardKey.of(items.get(i).getProductId(), shardCount),
+                    shard -> new ArrayList<>()).add(i);
+        }
+
+        // All streams start before any is awaited, so the shards are checked concurrently
+        Map<String, CompletableFuture<List<InventoryCheckResult>>> streams = new LinkedHashMap<>();
+        positionsByShard.forEach((shard, positions) -> streams.put(shard,
+                streamBasket(shard, positions.stream().map(items::get).toList())));
+
+        InventoryCheckResult[] results = new InventoryCheckResult[items.size()];
+        // The call deadlines bound these waits
+        try {
+            for (Map.Entry<String, CompletableFuture<List<InventoryCheckResult>>> stream : streams.entrySet()) {
+                List<Integer> positions = positionsByShard.get(stream.getKey());
+                List<InventoryCheckResult> shardResults = stream.getValue().get();
+                for (int i = 0; i < positions.size(); i++) {
+                    results[positions.get(i)] = shardResults.get(i);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Status.CANCELLED.withDescription("Interrupted while checking basket")
+                    .withCause(e).asRuntimeException();
+        } catch (ExecutionException e) {
+            log.warn("Basket inventory check failed: {}", e.getCause().getMessage());
+            throw Status.fromThrowable(e.getCause()).asRuntimeException();
+        }
+        return Arrays.asList(results);
+    }
+
+    private CompletableFuture<List<InventoryCheckResult>> streamBasket(String shard, List<OrderItem> items) {
+        CompletableFuture<List<InventoryCheckResult>> future = new CompletableFuture<>();
+        List<InventoryCheckResult> results = new ArrayList<>(items.size());
+
+        StreamObserver<StockCheckRequest> requests = asyncStub
+                .withInterceptors(routedTo(shard))
+                .withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+                .checkBasket(new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockCheckResponse response) {
+                        results.add(toResult(response));
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        future.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        if (results.size() == items.size()) {
+                            future.complete(results);
+                        } else {
+                            future.completeExceptionally(Status.INTERNAL
+                                    .withDescription("Basket stream answered " + results.size()
+                                            + " of " + items.size() + " items")
+                                    .asRuntimeException());
+                        }
+                    }
+                });
+
+        for (OrderItem item : items) {
+            requests.onNext(toRequest(item.getProductId(), item.getQuantity()));
+        }
+        requests.onCompleted();
+        return future;
+    }
+
+    // Consistent-hash routing key, so a shard always reaches the replica owning it
+    private ClientInterceptor routedTo(String shard) {
+        Metadata headers = new Metadata();
+        headers.put(shardHeader, shard);
+        // Identifies checkout traffic to inventory-service admission control where no sidecar
+        // vouches for the caller; in the mesh the mTLS identity is used instead
+        headers.put(callerHeader, callerId);
+        return MetadataUtils.newAttachHeadersInterceptor(headers);
+    }
+
+    private static StockCheckRequest toRequest(String productId, int quantity) {
+        return StockCheckRequest.newBuilder()
+                .setProductId(productId)
+                .setQuantity(quantity)
+                .build();
+    }
+
+    private static InventoryCheckResult toResult(StockCheckResponse response) {
+        return InventoryCheckResult.builder()
+                .productId(response.getProductId())
+                .available(response.getAvailable())
+                .availableQuantity(response.getAvailableQuantity())
+                .requestedQuantity(response.getRequestedQuantity())
+                .build();
+    }
+}
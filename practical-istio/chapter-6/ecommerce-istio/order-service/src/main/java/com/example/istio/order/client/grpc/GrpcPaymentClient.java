@@ -0,0 +1,78 @@
+package com.example.istio.order.client.grpc;
+
+import com.example.istio.order.client.PaymentClient;
+import com.example.istio.order.grpc.payment.PaymentServiceGrpc;
+import com.example.istio.order.grpc.payment.ProcessPaymentRequest;
+import com.example.istio.order.grpc.payment.ProcessPaymentResponse;
+import com.example.istio.order.model.PaymentRequest;
+import com.example.istio.order.model.PaymentResponse;
+import com.example.istio.order.model.PaymentStatus;
+import io.grpc.ManagedChannel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * gRPC payment client sharing one multiplexed HTTP/2 channel across all callers
+ */
+@Component
+@ConditionalOnProperty(name = "service.transport", havingValue = "grpc")
+public class GrpcPaymentClient implements PaymentClient {
+
+    private final PaymentServiceGrpc.PaymentServiceBlockingStub blockingStub;
+    private final long timeoutMillis;
+
+    public GrpcPaymentClient(@Qualifier("paymentChannel") ManagedChannel paymentChannel,
+                             @Value("${service.payment.timeout}") long timeoutMillis) {
+        this.blockingStub = PaymentServiceGrpc.newBlockingStub(paymentChannel);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public PaymentResponse processPayment(PaymentRequest paymentRequest) {
+        ProcessPaymentRequest.Builder request = ProcessPaymentRequest.newBuilder()
+                .setOrderId(paymentRequest.getOrderId())
+                .setAmount(paymentRequest.getAmount().toBigDecimal().toPlainString());
+        if (paymentRequest.getCurrency() != null) {
+            request.setCurrency(paymentRequest.getCurrency());
+        }
+        if (paymentRequest.getCustomerId() != null) {
+            request.setCustomerId(paymentRequest.getCustomerId());
+        }
+        if (paymentRequest.getPaymentMethod() != null) {
+            request.setPaymentMethod(paymentRequest.getPaymentMethod());
+        }
+
+        ProcessPaymentResponse response = blockingStub
+                .withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+                .processPayment(request.build());
+
+        return PaymentResponse.builder()
+                .paymentId(response.getPaymentId())
+                .orderId(response.getOrderId())
+                .status(toStatus(response.getStatus()))
+                .amount(response.getAmount().isEmpty() ? null : new BigDecimal(response.getAmount()))
+                .currency(response.getCurrency())
+                .transactionId(response.getTransactionId())
+                .errorMessage(response.getErrorMessage().isEmpty() ? null : response.getErrorMessage())
+                .processedAt(LocalDateTime.now())
+                .build();
+    }
+
+    // Unset (proto default "") or unknown statuses never count as a successful payment
+    static PaymentStatus toStatus(String status) {
+        if (status.isEmpty()) {
+            return PaymentStatus.FAILED;
+        }
+        try {
+            return PaymentStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            return PaymentStatus.FAILED;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.istio.order.client.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.context.propagation.TextMapSetter;
+
+/**
+ * Injects the current OpenTelemetry context (traceparent, baggage) into gRPC metadata
+ * so spans started by the downstream service join the order's trace
+ */
+public class TracingClientInterceptor implements ClientInterceptor {
+
+    private static final TextMapSetter<Metadata> SETTER = (carrier, key, value) -> {
+        if (carrier != null) {
+            carrier.put(Metadata.Key.of(key, Metadata.ASCII_STRING_MARSHALLER), value);
+        }
+    };
+
+    private final TextMapPropagator propagator;
+
+    public TracingClientInterceptor(OpenTelemetry openTelemetry) {
+        this.propagator = openTelemetry.getPropagators().getTextMapPropagator();
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions, Channel next) {
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                propagator.inject(Context.current(), headers, SETTER);
+                super.start(responseListener, headers);
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.istio.order.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Separate connection pools for writes (spring.datasource) and reads (order.datasource.read),
+ * so polling reads never wait behind order commits for a connection.
+ * Both pools are beans of their own and report hikaricp.* metrics under their pool names.
+ * The read pool is left out of the readiness group (db/readDataSource): without the replica,
+ * reads go to the write pool and the pod keeps serving.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    @ConfigurationProperties("order.datasource.read.hikari")
+    public HikariDataSource readDataSource(@Value("${order.datasource.read.url}") String url,
+                                           @Value("${order.datasource.read.username}") String username,
+                                           @Value("${order.datasource.read.password}") String password,
+                                           @Value("${order.datasource.read.driver-class-name}") String driverClassName) {
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .driverClassName(driverClassName)
+                .build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("readDataSource") DataSource readDataSource,
+                                               @Value("${order.datasource.read.lag-query:}") String lagQuery,
+                                               @Value("${order.datasource.read.max-lag:2s}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(readDataSource, lagQuery, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(replicaLagMonitor);
+        routingDataSource.setTargetDataSources(Map.of(
+                ReadWriteRoutingDataSource.Route.WRITE, writeDataSource,
+                ReadWriteRoutingDataSource.Route.READ, readDataSource));
+        routingDataSource.setDefaultTargetDataSource(writeDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        // Defers fetching the connection until the transaction's read-only flag is set
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
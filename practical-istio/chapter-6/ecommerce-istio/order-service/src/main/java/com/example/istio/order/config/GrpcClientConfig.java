@@ -0,0 +1,64 @@
+package com.example.istio.order.config;
+
+import com.example.istio.order.client.grpc.TracingClientInterceptor;
+import com.example.istio.order.warmup.WarmupTransport;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.opentelemetry.api.OpenTelemetry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared gRPC channels for inter-service calls, enabled with service.transport=grpc.
+ * Each downstream gets one long-lived HTTP/2 channel that multiplexes all concurrent calls.
+ * Targets prefixed with "in-process:" bind to an in-process server of that name.
+ */
+@Configuration
+@ConditionalOnProperty(name = "service.transport", havingValue = "grpc")
+public class GrpcClientConfig {
+
+    private static final String IN_PROCESS_PREFIX = "in-process:";
+
+    @Bean
+    public TracingClientInterceptor tracingClientInterceptor(OpenTelemetry openTelemetry) {
+        return new TracingClientInterceptor(openTelemetry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ManagedChannel inventoryChannel(@Value("${service.inventory.grpc.target}") String target,
+                                           TracingClientInterceptor interceptor,
+                                           WarmupTransport warmupTransport) {
+        return buildChannel(target, interceptor, warmupTransport);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ManagedChannel paymentChannel(@Value("${service.payment.grpc.target}") String target,
+                                         TracingClientInterceptor interceptor,
+                                         WarmupTransport warmupTransport) {
+        return buildChannel(target, interceptor, warmupTransport);
+    }
+
+    static ManagedChannel buildChannel(String target, TracingClientInterceptor interceptor,
+                                       WarmupTransport warmupTransport) {
+        ManagedChannelBuilder<?> builder;
+        if (target.startsWith(IN_PROCESS_PREFIX)) {
+            builder = InProcessChannelBuilder.forName(target.substring(IN_PROCESS_PREFIX.length()));
+        } else {
+            // mTLS is terminated by the Istio sidecar, so the app talks plaintext HTTP/2
+            builder = NettyChannelBuilder.forTarget(target)
+                    .usePlaintext()
+                    .keepAliveTime(30, TimeUnit.SECONDS)
+                    .keepAliveTimeout(10, TimeUnit.SECONDS);
+        }
+        // Interceptors run last-added first: tracing, then the warm-up stub right before the transport
+        return builder
+                .intercept(warmupTransport.grpcInterceptor(), interceptor)
+                .build();
+    }
+}
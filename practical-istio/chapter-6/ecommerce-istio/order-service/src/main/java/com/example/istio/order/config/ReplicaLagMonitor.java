@@ -0,0 +1,62 @@
+package com.example.istio.order.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Periodically checks the read replica and marks it unusable while it is unreachable or
+ * lags more than the allowed delay. The lag query is database specific and optional,
+ * e.g. for PostgreSQL: SELECT EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final JdbcTemplate readJdbcTemplate;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    private volatile boolean replicaUsable = true;
+
+    public ReplicaLagMonitor(DataSource readDataSource, String lagQuery, Duration maxLag,
+                             MeterRegistry meterRegistry) {
+        this.readJdbcTemplate = new JdbcTemplate(readDataSource);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        meterRegistry.gauge("order.datasource.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${order.datasource.read.lag-check-interval:PT5S}")
+    public void checkReplica() {
+        boolean usable;
+        try {
+            if (lagQuery == null || lagQuery.isBlank()) {
+                readJdbcTemplate.queryForObject("SELECT 1", Integer.class);
+                usable = true;
+            } else {
+                Long lagMillis = readJdbcTemplate.queryForObject(lagQuery, Long.class);
+                usable = lagMillis == null || lagMillis <= maxLag.toMillis();
+                if (!usable) {
+                    log.debug("Read replica lags {} ms", lagMillis);
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Read replica check failed: {}", e.getMessage());
+            usable = false;
+        }
+
+        if (usable != replicaUsable) {
+            log.warn("Read replica {}, reads go to the {} pool",
+                    usable ? "recovered" : "unavailable or lagging", usable ? "read" : "write");
+        }
+        replicaUsable = usable;
+    }
+}
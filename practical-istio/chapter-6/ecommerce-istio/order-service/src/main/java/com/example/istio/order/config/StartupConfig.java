@@ -0,0 +1,29 @@
+package com.example.istio.order.config;
+
+import com.example.istio.order.client.InventoryClient;
+import com.example.istio.order.client.PaymentClient;
+import com.example.istio.order.service.OrderService;
+import io.grpc.ManagedChannel;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Keeps the beans on the order processing path eager when the fast-startup profile
+ * turns on lazy initialization, so the first order does not pay for their creation
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter orderPathEagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                OrderService.class,
+                InventoryClient.class,
+                PaymentClient.class,
+                ManagedChannel.class,
+                DataSource.class);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.istio.order.controller;
+
+import com.example.istio.order.bulk.BulkOrderProcessor;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/orders")
+public class BulkOrderController {
+
+    // Bulk requests run for a while; clients retry a rejected one after a few seconds
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final BulkOrderProcessor bulkOrderProcessor;
+
+    public BulkOrderController(BulkOrderProcessor bulkOrderProcessor) {
+        this.bulkOrderProcessor = bulkOrderProcessor;
+    }
+
+    /**
+     * Accepts a JSON array of orders and streams one NDJSON result line per order as it completes.
+     * The body is read incrementally, so arbitrarily large batches are never held in memory.
+     * While order.bulk.max-concurrent-requests requests are running, further ones get 503 with Retry-After.
+     */
+    @PostMapping(value = "/bulk",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> submitBulk(HttpServletRequest request) {
+        if (!bulkOrderProcessor.tryAdmit()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+        StreamingResponseBody body = out -> bulkOrderProcessor.process(request::getInputStream, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.istio.order.controller;
+
+import com.example.istio.order.model.Order;
+import com.example.istio.order.model.OrderRequest;
+import com.example.istio.order.model.OrderResponse;
+import com.example.istio.order.model.OrderStatus;
+import com.example.istio.order.service.OrderService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders")
+public class OrderController {
+
+    private final OrderService orderService;
+
+    public OrderController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    @PostMapping
+    public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody OrderRequest orderRequest) {
+        OrderResponse response = orderService.processOrder(orderRequest);
+        HttpStatus status = response.getStatus() == OrderStatus.COMPLETED
+                ? HttpStatus.CREATED
+                : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @GetMapping("/{orderId}")
+    public ResponseEntity<Order> getOrder(@PathVariable String orderId) {
+        return ResponseEntity.of(orderService.getOrder(orderId));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<Order>> findOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        if (createdTo.isBefore(createdFrom)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderService.findOrdersCreatedBetween(createdFrom, createdTo, limit));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.istio.order.entity;
+
+import com.example.istio.order.model.Money;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Persists Money in the existing DECIMAL columns.
+ * Orders are kept in the default currency, other currencies are rejected rather than stored ambiguously.
+ */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        if (money == null) {
+            return null;
+        }
+        if (!Money.DEFAULT_CURRENCY.equals(money.getCurrency())) {
+            throw new IllegalArgumentException("Unsupported currency for persistence: " + money.getCurrency());
+        }
+        return money.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+}
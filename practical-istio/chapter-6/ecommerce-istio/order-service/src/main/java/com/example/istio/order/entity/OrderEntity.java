@@ -1,5 +1,6 @@
 package com.example.istio.order.entity;
 
+import com.example.istio.order.model.Money;
 import com.example.istio.order.model.Order;
 import com.example.istio.order.model.OrderItem;
 import com.example.istio.order.model.OrderStatus;
@@ -7,21 +8,23 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Entity
 @Table(name = "orders")
 @Data
 @NoArgsConstructor
 public class OrderEntity {
+    // Time-ordered UUIDv7, stored in the database's native 16-byte UUID/binary type
     @Id
-    private String orderId;
+    private UUID orderId;
 
     private String customerId;
-    private BigDecimal totalAmount;
+    @Convert(converter = MoneyConverter.class)
+    private Money totalAmount;
 
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
@@ -41,7 +44,7 @@ public class OrderEntity {
     // Convert from domain model to entity
     public static OrderEntity fromOrder(Order order) {
         OrderEntity entity = new OrderEntity();
-        entity.setOrderId(order.getOrderId());
+        entity.setOrderId(UUID.fromString(order.getOrderId()));
         entity.setCustomerId(order.getCustomerId());
         entity.setTotalAmount(order.getTotalAmount());
         entity.setStatus(order.getStatus());
@@ -65,7 +68,7 @@ public class OrderEntity {
     // Convert from entity to domain model
     public Order toOrder() {
         Order order = new Order();
-        order.setOrderId(this.orderId);
+        order.setOrderId(this.orderId.toString());
         order.setCustomerId(this.customerId);
         order.setTotalAmount(this.totalAmount);
         order.setStatus(this.status);
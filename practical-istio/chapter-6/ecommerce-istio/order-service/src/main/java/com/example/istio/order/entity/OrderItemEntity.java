@@ -1,12 +1,11 @@
 package com.example.istio.order.entity;
 
+import com.example.istio.order.model.Money;
 import com.example.istio.order.model.OrderItem;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Entity
 @Table(name = "order_items")
 @Data
@@ -18,8 +17,10 @@ public class OrderItemEntity {
 
     private String productId;
     private Integer quantity;
-    private BigDecimal unitPrice;
-    private BigDecimal subtotal;
+    @Convert(converter = MoneyConverter.class)
+    private Money unitPrice;
+    @Convert(converter = MoneyConverter.class)
+    private Money subtotal;
     private String productName;
     private String productCategory;
 
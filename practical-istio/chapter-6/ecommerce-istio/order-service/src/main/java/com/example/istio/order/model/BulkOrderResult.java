@@ -0,0 +1,23 @@
+package com.example.istio.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one order of a bulk submission, streamed back as one NDJSON line.
+ * Results arrive in completion order; index is the order's position in the submitted array.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResult {
+    private int index;
+    private String orderId;
+    private OrderStatus status;
+    private String message;
+    private Money totalAmount;
+    private String paymentId;
+}
@@ -0,0 +1,20 @@
+package com.example.istio.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of an inventory availability check for a single product
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryCheckResult {
+    private String productId;
+    private boolean available;
+    private Integer availableQuantity;
+    private Integer requestedQuantity;
+}
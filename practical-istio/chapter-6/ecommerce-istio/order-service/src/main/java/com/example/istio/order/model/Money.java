@@ -0,0 +1,113 @@
+package com.example.istio.order.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Immutable monetary amount stored as a long count of minor units (e.g. cents) plus a currency.
+ * Arithmetic is done on primitives with overflow checks, so order totals need no BigDecimal work.
+ * Serialized to JSON as a plain decimal number to keep the existing API payloads unchanged.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0L, currency);
+    }
+
+    /**
+     * Converts a decimal amount exactly; trailing zeros beyond the minor unit are fine,
+     * any other excess fraction digit is rejected rather than rounded away.
+     *
+     * @throws ArithmeticException if the amount has more fraction digits than the currency's
+     *                             minor unit or does not fit in a long of minor units
+     */
+    public static Money of(BigDecimal amount, Currency currency) {
+        long minor = amount.setScale(currency.getDefaultFractionDigits(), RoundingMode.UNNECESSARY)
+                .unscaledValue()
+                .longValueExact();
+        return new Money(minor, currency);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public Money plus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(minorUnits, (long) quantity), currency);
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    private void checkSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money other)) {
+            return false;
+        }
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+    }
+}
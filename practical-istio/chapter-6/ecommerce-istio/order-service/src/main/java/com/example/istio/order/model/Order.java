@@ -5,10 +5,9 @@ import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Currency;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Main Order entity representing a customer order
@@ -29,13 +28,13 @@ public class Order {
     private List<OrderItem> items;
 
     @NotNull
-    private BigDecimal totalAmount;
+    private Money totalAmount;
 
     @NotNull
     private OrderStatus status;
 
     public Order(String customerId) {
-        this.orderId = UUID.randomUUID().toString();
+        this.orderId = OrderIdGenerator.nextId().toString();
         this.customerId = customerId;
         this.status = OrderStatus.CREATED;
         this.createdAt = LocalDateTime.now();
@@ -54,9 +53,27 @@ public class Order {
     private String traceId;
     private String spanId;
 
+    /**
+     * Computes every line subtotal and the order total in a single pass over primitive minor units.
+     * Only the resulting Money values are allocated.
+     *
+     * @throws ArithmeticException if an amount overflows
+     * @throws IllegalArgumentException if the items mix currencies
+     */
     public void calculateTotalAmount() {
-        this.totalAmount = items.stream()
-                .map(item -> item.getUnitPrice().multiply(new BigDecimal(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Currency currency = items.isEmpty() ? Money.DEFAULT_CURRENCY : items.get(0).getUnitPrice().getCurrency();
+        long total = 0L;
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem item = items.get(i);
+            Money unitPrice = item.getUnitPrice();
+            if (!currency.equals(unitPrice.getCurrency())) {
+                throw new IllegalArgumentException("Order items mix currencies: "
+                        + currency + " and " + unitPrice.getCurrency());
+            }
+            long subtotal = Math.multiplyExact(unitPrice.getMinorUnits(), (long) item.getQuantity());
+            item.setSubtotal(Money.ofMinor(subtotal, currency));
+            total = Math.addExact(total, subtotal);
+        }
+        this.totalAmount = Money.ofMinor(total, currency);
     }
 }
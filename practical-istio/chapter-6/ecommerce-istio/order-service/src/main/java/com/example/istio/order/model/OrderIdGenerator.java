@@ -0,0 +1,66 @@
+package com.example.istio.order.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates time-ordered UUIDv7 order ids (RFC 9562).
+ * Layout: 48-bit Unix epoch milliseconds, version 7, a 12-bit per-millisecond counter
+ * and 62 random bits. Ids from one node are strictly increasing, even if the clock steps back,
+ * so inserts land at the right edge of the primary key index. The random bits come from a
+ * SecureRandom per thread, which keeps pods uncoordinated without contending on a shared one.
+ */
+public final class OrderIdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final long VARIANT = 0x8000000000000000L;
+
+    private static final OrderIdGenerator INSTANCE = new OrderIdGenerator(System::currentTimeMillis);
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    private final LongSupplier clock;
+
+    // Last issued (millis << COUNTER_BITS | counter)
+    private final AtomicLong last = new AtomicLong();
+
+    OrderIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public static UUID nextId() {
+        return INSTANCE.next();
+    }
+
+    /**
+     * Smallest id that can be issued in the given millisecond, the inclusive lower bound of a time-range scan
+     */
+    public static UUID minIdAt(long epochMillis) {
+        return new UUID((epochMillis << 16) | VERSION_7, VARIANT);
+    }
+
+    /**
+     * Largest id that can be issued in the given millisecond, the inclusive upper bound of a time-range scan
+     */
+    public static UUID maxIdAt(long epochMillis) {
+        return new UUID((epochMillis << 16) | VERSION_7 | ((1L << COUNTER_BITS) - 1), VARIANT | VARIANT_MASK);
+    }
+
+    UUID next() {
+        long state = last.updateAndGet(previous -> {
+            long candidate = clock.getAsLong() << COUNTER_BITS;
+            // Same millisecond or clock moved back: bump the counter, spilling into the timestamp if needed
+            return candidate > previous ? candidate : previous + 1;
+        });
+
+        long millis = state >>> COUNTER_BITS;
+        long counter = state & ((1L << COUNTER_BITS) - 1);
+
+        long mostSigBits = (millis << 16) | VERSION_7 | counter;
+        long leastSigBits = (RANDOM.get().nextLong() & VARIANT_MASK) | VARIANT;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
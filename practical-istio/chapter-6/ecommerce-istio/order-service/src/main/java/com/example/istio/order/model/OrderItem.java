@@ -1,12 +1,9 @@
 package com.example.istio.order.model;
 
-import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
-import java.math.BigDecimal;
-
 /**
  * Represents individual items within an order
  */
@@ -23,11 +20,10 @@ public class OrderItem {
     private Integer quantity;
 
     @NotNull
-    @DecimalMin("0.01")
-    private BigDecimal unitPrice;
+    private Money unitPrice;
 
     @NotNull
-    private BigDecimal subtotal;
+    private Money subtotal;
 
     private String productName;
     private String productCategory;
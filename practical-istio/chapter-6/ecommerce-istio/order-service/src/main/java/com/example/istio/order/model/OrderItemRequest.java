@@ -1,5 +1,6 @@
 package com.example.istio.order.model;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -21,6 +22,8 @@ public class OrderItemRequest {
     private String productId;
 
     @NotNull(message = "Unit Price is required")
+    // Money keeps whole cents and never rounds, see Money.of
+    @Digits(integer = 15, fraction = 2, message = "Unit Price must have at most 2 decimal places")
     private BigDecimal unitPrice;
 
     @NotNull(message = "Quantity is required")
@@ -33,7 +33,7 @@ public class OrderRequest {
                 .map(item -> OrderItem.builder()
                         .productId(item.getProductId())
                         .quantity(item.getQuantity())
-                        .unitPrice(item.getUnitPrice())
+                        .unitPrice(Money.of(item.getUnitPrice()))
                         .build())
                 .toList());
         return order;
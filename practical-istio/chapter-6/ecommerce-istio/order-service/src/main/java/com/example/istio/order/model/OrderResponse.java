@@ -5,7 +5,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -21,7 +20,7 @@ public class OrderResponse {
     private OrderStatus status;
     private String message;
     private List<OrderItem> items;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private LocalDateTime createdAt;
 
     // Tracking fields for observability
@@ -1,13 +1,11 @@
 package com.example.istio.order.model;
 
-import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 
 /**
  * Request object for initiating a payment transaction
@@ -22,8 +20,7 @@ public class PaymentRequest {
     private String orderId;
 
     @NotNull(message = "Amount is required")
-    @DecimalMin(value = "0.01", message = "Amount must be greater than zero")
-    private BigDecimal amount;
+    private Money amount;
 
     // Optional fields for payment processing
     private String customerId;
@@ -34,10 +31,15 @@ public class PaymentRequest {
     private String traceId;
     private String spanId;
 
-    // Constructor for basic payment request
-    public PaymentRequest(String orderId, BigDecimal amount) {
+    // Constructor for basic payment request, currency follows the amount
+    public PaymentRequest(String orderId, Money amount) {
         this.orderId = orderId;
         this.amount = amount;
-        this.currency = "USD"; // Default currency
+        this.currency = amount.getCurrency().getCurrencyCode();
+    }
+
+    @AssertTrue(message = "Amount must be greater than zero")
+    private boolean isAmountPositive() {
+        return amount == null || amount.isPositive();
     }
 }
@@ -0,0 +1,23 @@
+package com.example.istio.order.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Catalog data of a product as served by inventory-service
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductInfo {
+    private String productId;
+    private String productName;
+    private String category;
+    // Last change of name or category; stock changes do not move it
+    private LocalDateTime catalogUpdated;
+}
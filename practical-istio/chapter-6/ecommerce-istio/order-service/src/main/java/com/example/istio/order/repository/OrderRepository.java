@@ -0,0 +1,19 @@
+package com.example.istio.order.repository;
+
+import com.example.istio.order.entity.OrderEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OrderRepository extends JpaRepository<OrderEntity, UUID> {
+
+    /**
+     * Orders whose time-ordered id lies in the given range, a primary key range scan.
+     * Bounds come from OrderIdGenerator.minIdAt/maxIdAt.
+     */
+    List<OrderEntity> findByOrderIdBetweenOrderByOrderId(UUID from, UUID to, Pageable pageable);
+}
@@ -1,5 +1,7 @@
 package com.example.istio.order.service;
 
+import com.example.istio.order.client.InventoryClient;
+import com.example.istio.order.client.PaymentClient;
 import com.example.istio.order.entity.OrderEntity;
 import com.example.istio.order.model.*;
 import com.example.istio.order.repository.OrderRepository;
@@ -12,32 +14,33 @@ import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.semconv.trace.attributes.SemanticAttributes;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Slf4j
 @Service
 public class OrderService {
 
-    private final RestTemplate restTemplate;
+    private final InventoryClient inventoryClient;
+    private final PaymentClient paymentClient;
+    private final ProductCatalog productCatalog;
     private final MeterRegistry meterRegistry;
     private final Tracer tracer;
     private final OrderRepository orderRepository;
 
-    @Value("${service.inventory.url}")
-    private String inventoryServiceUrl;
-
-    @Value("${service.payment.url}")
-    private String paymentServiceUrl;
-
-    public OrderService(RestTemplate restTemplate, MeterRegistry meterRegistry,
+    public OrderService(InventoryClient inventoryClient, PaymentClient paymentClient,
+                        ProductCatalog productCatalog, MeterRegistry meterRegistry,
                         Tracer tracer, OrderRepository orderRepository) {
-        this.restTemplate = restTemplate;
+        this.inventoryClient = inventoryClient;
+        this.paymentClient = paymentClient;
+        this.productCatalog = productCatalog;
         this.meterRegistry = meterRegistry;
         this.tracer = tracer;
         this.orderRepository = orderRepository;
@@ -60,6 +63,9 @@ public class OrderService {
             order.setCreatedAt(LocalDateTime.now());
             order.setStatus(OrderStatus.CREATED);
 
+            // Fill product name and category from the local catalog cache
+            productCatalog.enrich(order.getItems());
+
             // Save initial order state
             OrderEntity orderEntity = OrderEntity.fromOrder(order);
             orderRepository.save(orderEntity);
@@ -129,16 +135,16 @@ public class OrderService {
         try (Scope scope = span.makeCurrent()) {
             Timer.Sample timer = Timer.start(meterRegistry);
 
-            for (OrderItem item : order.getItems()) {
-                String url = inventoryServiceUrl + "/check/" + item.getProductId()
-                        + "?quantity=" + item.getQuantity();
+            List<InventoryCheckResult> results = inventoryClient.checkBasket(order.getItems());
+
+            for (int i = 0; i < order.getItems().size(); i++) {
+                OrderItem item = order.getItems().get(i);
 
                 // Add span attributes for the inventory check
                 span.setAttribute("product.id", item.getProductId());
                 span.setAttribute("product.quantity", item.getQuantity());
 
-                InventoryCheckResult result = restTemplate.getForObject(
-                        url, InventoryCheckResult.class);
+                InventoryCheckResult result = i < results.size() ? results.get(i) : null;
 
                 if (result == null || !result.isAvailable()) {
                     span.setStatus(StatusCode.ERROR, "Insufficient inventory");
@@ -174,11 +180,8 @@ public class OrderService {
         try (Scope scope = span.makeCurrent()) {
             Timer.Sample timer = Timer.start(meterRegistry);
 
-            PaymentResponse result = restTemplate.postForObject(
-                    paymentServiceUrl + "/process",
-                    new PaymentRequest(order.getOrderId(), order.getTotalAmount()),
-                    PaymentResponse.class
-            );
+            PaymentResponse result = paymentClient.processPayment(
+                    new PaymentRequest(order.getOrderId(), order.getTotalAmount()));
 
             timer.stop(meterRegistry.timer("payment.processing.time",
                     "status", result != null ? result.getStatus().toString() : "ERROR"));
@@ -214,6 +217,8 @@ public class OrderService {
         return OrderResponse.failure(reason);
     }
 
+    // Read-only transactions are served by the read pool, see DataSourceConfig
+    @Transactional(readOnly = true)
     public Optional<Order> getOrder(String orderId) {
         Span span = tracer.spanBuilder("getOrder")
                 .setAttribute("orderId", orderId)
@@ -221,7 +226,8 @@ public class OrderService {
                 .startSpan();
 
         try (Scope scope = span.makeCurrent()) {
-            Optional<Order> response =  orderRepository.findById(orderId)
+            Optional<Order> response = parseOrderId(orderId)
+                    .flatMap(orderRepository::findById)
                     .map(OrderEntity::toOrder);
             span.setStatus(response.isPresent() ? StatusCode.OK : StatusCode.ERROR);
             return response;
@@ -230,4 +236,28 @@ public class OrderService {
             span.end();
         }
     }
+
+    /**
+     * Orders created in [from, to], oldest first. Served by a primary key range scan
+     * because order ids are time-ordered, see OrderIdGenerator.
+     */
+    @Transactional(readOnly = true)
+    public List<Order> findOrdersCreatedBetween(Instant from, Instant to, int limit) {
+        return orderRepository.findByOrderIdBetweenOrderByOrderId(
+                        OrderIdGenerator.minIdAt(from.toEpochMilli()),
+                        OrderIdGenerator.maxIdAt(to.toEpochMilli()),
+                        PageRequest.ofSize(limit))
+                .stream()
+                .map(OrderEntity::toOrder)
+                .toList();
+    }
+
+    private static Optional<UUID> parseOrderId(String orderId) {
+        try {
+            return Optional.of(UUID.fromString(orderId));
+        } catch (IllegalArgumentException e) {
+            // Not an order id, cannot match any order
+            return Optional.empty();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.example.istio.order.service;
+
+import com.example.istio.order.client.CatalogClient;
+import com.example.istio.order.model.OrderItem;
+import com.example.istio.order.model.ProductInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local near-cache of product names and categories used to enrich order items.
+ * Bulk-loaded from inventory-service at startup and refreshed incrementally by delta;
+ * misses of a basket are fetched together in one batched call. Ids inventory-service
+ * does not know are remembered for a short time so they do not cost a call per order.
+ */
+@Slf4j
+@Component
+public class ProductCatalog {
+
+    private final CatalogClient catalogClient;
+    private final Map<String, ProductInfo> products = new ConcurrentHashMap<>();
+    // Unknown product ids with the System.nanoTime() until which they are not looked up again
+    private final Map<String, Long> unknown = new ConcurrentHashMap<>();
+    private final long negativeTtlNanos;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter negativeHits;
+
+    // Highest catalogUpdated seen so far, the watermark for delta refreshes
+    private volatile LocalDateTime watermark;
+
+    public ProductCatalog(CatalogClient catalogClient, MeterRegistry meterRegistry,
+                          @Value("${catalog.negative-ttl:PT30S}") Duration negativeTtl) {
+        this.catalogClient = catalogClient;
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.hits = meterRegistry.counter("catalog.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("catalog.cache.requests", "result", "miss");
+        this.negativeHits = meterRegistry.counter("catalog.cache.requests", "result", "unknown");
+        meterRegistry.gaugeMapSize("catalog.cache.size", List.of(), products);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bulkLoad() {
+        try {
+            List<ProductInfo> all = catalogClient.findAll();
+            putAll(all);
+            log.info("Product catalog loaded with {} products", all.size());
+        } catch (Exception e) {
+            // Enrichment falls back to batched lookups until the next refresh succeeds
+            log.warn("Product catalog bulk load failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.refresh-interval:PT60S}",
+            initialDelayString = "${catalog.refresh-interval:PT60S}")
+    public void refresh() {
+        long now = System.nanoTime();
+        unknown.values().removeIf(until -> until - now <= 0);
+        try {
+            if (watermark == null) {
+                bulkLoad();
+                return;
+            }
+            List<ProductInfo> changed = catalogClient.findUpdatedSince(watermark);
+            putAll(changed);
+            if (!changed.isEmpty()) {
+                log.debug("Product catalog refreshed with {} changed products", changed.size());
+            }
+        } catch (Exception e) {
+            log.warn("Product catalog refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sets productName and productCategory on every item, with at most one
+     * downstream call for all items missing from the cache
+     */
+    public void enrich(List<OrderItem> items) {
+        long now = System.nanoTime();
+        Set<String> missing = null;
+        int knownUnknown = 0;
+        for (OrderItem item : items) {
+            String productId = item.getProductId();
+            if (products.containsKey(productId)) {
+                continue;
+            }
+            if (isKnownUnknown(productId, now)) {
+                knownUnknown++;
+                continue;
+            }
+            if (missing == null) {
+                missing = new LinkedHashSet<>();
+            }
+            missing.add(productId);
+        }
+
+        if (missing != null) {
+            misses.increment(missing.size());
+            try {
+                List<ProductInfo> found = catalogClient.findByIds(new ArrayList<>(missing));
+                putAll(found);
+                for (ProductInfo product : found) {
+                    missing.remove(product.getProductId());
+                }
+                // Only a successful answer proves absence; failed lookups are retried next order
+                if (negativeTtlNanos > 0) {
+                    for (String productId : missing) {
+                        unknown.put(productId, now + negativeTtlNanos);
+                    }
+                }
+            } catch (Exception e) {
+                log.warn("Catalog lookup for {} products failed: {}", missing.size(), e.getMessage());
+            }
+        }
+        negativeHits.increment(knownUnknown);
+        hits.increment(items.size() - knownUnknown - (missing == null ? 0 : missing.size()));
+
+        for (OrderItem item : items) {
+            ProductInfo product = products.get(item.getProductId());
+            if (product != null) {
+                item.setProductName(product.getProductName());
+                item.setProductCategory(product.getCategory());
+            }
+        }
+    }
+
+    /**
+     * Drops the given products, e.g. the synthetic ones cached during the JIT warm-up
+     */
+    public void evict(Collection<String> productIds) {
+        for (String productId : productIds) {
+            products.remove(productId);
+            unknown.remove(productId);
+        }
+    }
+
+    private boolean isKnownUnknown(String productId, long now) {
+        Long until = unknown.get(productId);
+        if (until == null) {
+            return false;
+        }
+        if (until - now > 0) {
+            return true;
+        }
+        unknown.remove(productId, until);
+        return false;
+    }
+
+    private void putAll(List<ProductInfo> changed) {
+        LocalDateTime latest = watermark;
+        for (ProductInfo product : changed) {
+            products.put(product.getProductId(), product);
+            unknown.remove(product.getProductId());
+            if (product.getCatalogUpdated() != null
+                    && (latest == null || product.getCatalogUpdated().isAfter(latest))) {
+                latest = product.getCatalogUpdated();
+            }
+        }
+        watermark = latest;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.istio.order.warmup;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WarmupConfig {
+
+    /**
+     * Keeps the synthetic warm-up orders out of the business metrics. The meters are still
+     * looked up on the same code path, they just resolve to no-op instances.
+     * Untagged latency timers (inventory.check.time, payment.processing.time) do include the
+     * warm-up calls.
+     */
+    @Bean
+    public MeterFilter warmupMeterFilter() {
+        return MeterFilter.deny(id -> WarmupRunner.CUSTOMER_ID.equals(id.getTag("customer_id")));
+    }
+}
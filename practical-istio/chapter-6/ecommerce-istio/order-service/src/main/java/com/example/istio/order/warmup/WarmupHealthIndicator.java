@@ -0,0 +1,33 @@
+package com.example.istio.order.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports JIT warm-up progress; part of the readiness group so traffic only
+ * arrives once warm-up has finished
+ */
+@Component("warmup")
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupRunner warmupRunner;
+
+    public WarmupHealthIndicator(WarmupRunner warmupRunner) {
+        this.warmupRunner = warmupRunner;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = warmupRunner.isFinished() ? Health.up() : Health.outOfService();
+        builder.withDetail("state", warmupRunner.getState())
+                .withDetail("iterations", warmupRunner.getCompletedIterations())
+                .withDetail("targetIterations", warmupRunner.getIterations())
+                .withDetail("elapsedMs", warmupRunner.getElapsedMillis())
+                .withDetail("maxDuration", warmupRunner.getMaxDuration().toString());
+        if (warmupRunner.getFailure() != null) {
+            builder.withDetail("failure", warmupRunner.getFailure());
+        }
+        return builder.build();
+    }
+}
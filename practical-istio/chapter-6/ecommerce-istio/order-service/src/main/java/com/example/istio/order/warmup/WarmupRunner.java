@@ -0,0 +1,223 @@
+package com.example.istio.order.warmup;
+
+import com.example.istio.order.model.*;
+import com.example.istio.order.repository.OrderRepository;
+import com.example.istio.order.service.ProductCatalog;
+import com.example.istio.order.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceId;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs synthetic orders through the real order processing path after startup so the JIT has
+ * compiled the hot methods before the pod reports ready.
+ * Only the transport is stubbed (see WarmupTransport): the OrderService bean with its transactional
+ * proxy, the production clients and their serialization all run as for real traffic. Every
+ * iteration flushes its SQL and then rolls back, spans are unsampled, customer-tagged metrics
+ * are dropped (see WarmupConfig) and the synthetic products are evicted from the ProductCatalog
+ * afterwards, so nothing of the warm-up is kept.
+ */
+@Slf4j
+@Component
+public class WarmupRunner {
+
+    /**
+     * Customer id of the synthetic orders; metrics tagged with it are dropped
+     */
+    public static final String CUSTOMER_ID = "WARMUP";
+
+    static final List<String> PRODUCT_IDS = List.of("WARMUP-001", "WARMUP-002");
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, FAILED, DISABLED
+    }
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final ProductCatalog productCatalog;
+    private final WarmupTransport warmupTransport;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration maxDuration;
+
+    private final AtomicInteger completedIterations = new AtomicInteger();
+    private volatile State state = State.PENDING;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String failure;
+
+    public WarmupRunner(OrderService orderService,
+                        OrderRepository orderRepository,
+                        ProductCatalog productCatalog,
+                        WarmupTransport warmupTransport,
+                        PlatformTransactionManager transactionManager,
+                        ObjectMapper objectMapper,
+                        @Value("${warmup.enabled:true}") boolean enabled,
+                        @Value("${warmup.iterations:2000}") int iterations,
+                        @Value("${warmup.max-duration:30s}") Duration maxDuration) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.productCatalog = productCatalog;
+        this.warmupTransport = warmupTransport;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.maxDuration = maxDuration;
+        if (!enabled) {
+            this.state = State.DISABLED;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWarmup() {
+        if (!enabled) {
+            log.info("JIT warm-up disabled");
+            return;
+        }
+        Thread thread = new Thread(this::runWarmup, "jit-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void runWarmup() {
+        startedAt = System.currentTimeMillis();
+        state = State.RUNNING;
+        long deadline = startedAt + maxDuration.toMillis();
+        log.info("Starting JIT warm-up: {} iterations, budget {}", iterations, maxDuration);
+
+        // Spans of the warm-up are children of an unsampled parent, so none are exported
+        try (Scope scope = unsampledContext().makeCurrent()) {
+            byte[] requestJson = objectMapper.writeValueAsBytes(sampleRequest());
+
+            while (completedIterations.get() < iterations && System.currentTimeMillis() < deadline) {
+                runIteration(requestJson);
+                completedIterations.incrementAndGet();
+            }
+            state = State.COMPLETED;
+        } catch (Exception e) {
+            // A failed warm-up must not keep the pod out of rotation
+            log.warn("JIT warm-up aborted after {} iterations", completedIterations.get(), e);
+            failure = e.getMessage();
+            state = State.FAILED;
+        } finally {
+            productCatalog.evict(PRODUCT_IDS);
+            finishedAt = System.currentTimeMillis();
+        }
+
+        log.info("JIT warm-up {} after {} iterations in {} ms",
+                state, completedIterations.get(), finishedAt - startedAt);
+    }
+
+    private void runIteration(byte[] requestJson) throws Exception {
+        // Request deserialization as done by the controller
+        OrderRequest request = objectMapper.readValue(requestJson, OrderRequest.class);
+
+        OrderResponse response = warmupTransport.callStubbed(() -> transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            OrderResponse result = orderService.processOrder(request);
+            // Execute the INSERT/UPDATE statements before the rollback discards them
+            orderRepository.flush();
+            if (result.getOrderId() != null) {
+                orderService.getOrder(result.getOrderId());
+            }
+            return result;
+        }));
+
+        if (response == null || response.getStatus() != OrderStatus.COMPLETED) {
+            throw new IllegalStateException("Warm-up order did not complete: "
+                    + (response == null ? "no response" : response.getMessage()));
+        }
+
+        // Response serialization as done by the controller
+        objectMapper.writeValueAsBytes(response);
+    }
+
+    private static Context unsampledContext() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SpanContext parent = SpanContext.create(
+                TraceId.fromLongs(random.nextLong(), random.nextLong() | 1),
+                SpanId.fromLong(random.nextLong() | 1),
+                TraceFlags.getDefault(),
+                TraceState.getDefault());
+        return Context.root().with(Span.wrap(parent));
+    }
+
+    private static OrderRequest sampleRequest() {
+        return OrderRequest.builder()
+                .customerId(CUSTOMER_ID)
+                .items(List.of(
+                        OrderItemRequest.builder()
+                                .productId(PRODUCT_IDS.get(0))
+                                .quantity(2)
+                                .unitPrice(new BigDecimal("1299.99"))
+                                .build(),
+                        OrderItemRequest.builder()
+                                .productId(PRODUCT_IDS.get(1))
+                                .quantity(5)
+                                .unitPrice(new BigDecimal("49.99"))
+                                .build()))
+                .build();
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * True once warm-up has ended, and also once it has run past its budget: the deadline is only
+     * checked between iterations, and a downstream call that hangs must not keep the pod unready
+     */
+    public boolean isFinished() {
+        State current = state;
+        if (current == State.RUNNING) {
+            return System.currentTimeMillis() - startedAt > maxDuration.toMillis();
+        }
+        return current != State.PENDING;
+    }
+
+    public int getCompletedIterations() {
+        return completedIterations.get();
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public Duration getMaxDuration() {
+        return maxDuration;
+    }
+
+    public long getElapsedMillis() {
+        if (startedAt == 0) {
+            return 0;
+        }
+        return (finishedAt != 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.istio.order.warmup;
+
+import com.example.istio.order.grpc.inventory.InventoryServiceGrpc;
+import com.example.istio.order.grpc.inventory.StockCheckRequest;
+import com.example.istio.order.grpc.inventory.StockCheckResponse;
+import com.example.istio.order.grpc.payment.PaymentServiceGrpc;
+import com.example.istio.order.grpc.payment.ProcessPaymentRequest;
+import com.example.istio.order.grpc.payment.ProcessPaymentResponse;
+import com.example.istio.order.model.InventoryCheckResult;
+import com.example.istio.order.model.PaymentRequest;
+import com.example.istio.order.model.PaymentResponse;
+import com.example.istio.order.model.ProductInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Answers downstream calls made on the warm-up thread in-process, at the transport level.
+ * The production clients, RestTemplate message conversion and gRPC stubs and marshallers all
+ * run as for real traffic, so the JIT profiles the same receiver types it will see later.
+ * Calls from any other thread go to the real transport untouched.
+ */
+@Component
+public class WarmupTransport {
+
+    private static final ThreadLocal<Boolean> ACTIVE = ThreadLocal.withInitial(() -> false);
+
+    private final ObjectMapper objectMapper;
+
+    public WarmupTransport(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Runs the action with every downstream call of the current thread answered in-process
+     */
+    public <T> T callStubbed(Supplier<T> action) {
+        ACTIVE.set(true);
+        try {
+            return action.get();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+
+    public boolean isActive() {
+        return ACTIVE.get();
+    }
+
+    /**
+     * Request factory for the shared RestTemplate: stubbed on the warm-up thread, delegate otherwise
+     */
+    public ClientHttpRequestFactory wrap(ClientHttpRequestFactory delegate) {
+        return (uri, method) -> isActive() ? new StubHttpRequest(uri, method) : delegate.createRequest(uri, method);
+    }
+
+    /**
+     * Innermost interceptor of the gRPC channels: stubbed on the warm-up thread, pass-through otherwise
+     */
+    public ClientInterceptor grpcInterceptor() {
+        return new ClientInterceptor() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                       CallOptions callOptions, Channel next) {
+                return isActive() ? new StubClientCall<>(method) : next.newCall(method, callOptions);
+            }
+        };
+    }
+
+    private Object respondHttp(URI uri, HttpMethod method, byte[] body) throws IOException {
+        String path = uri.getPath();
+        if (path.endsWith("/process") && method == HttpMethod.POST) {
+            PaymentRequest request = objectMapper.readValue(body, PaymentRequest.class);
+            return PaymentResponse.success(request.getOrderId(), "WARMUP-" + request.getOrderId(),
+                    request.getAmount().toBigDecimal());
+        }
+        if (path.contains("/check/")) {
+            String productId = path.substring(path.lastIndexOf('/') + 1);
+            String quantity = UriComponentsBuilder.fromUri(uri).build().getQueryParams().getFirst("quantity");
+            int requested = quantity == null ? 1 : Integer.parseInt(quantity);
+            return InventoryCheckResult.builder()
+                    .productId(productId)
+                    .available(true)
+                    .availableQuantity(requested)
+                    .requestedQuantity(requested)
+                    .build();
+        }
+        if (path.endsWith("/products/batch")) {
+            return Arrays.stream(objectMapper.readValue(body, String[].class))
+                    .map(productId -> ProductInfo.builder()
+                            .productId(productId)
+                            .productName("Warm-up product")
+                            .category("Warm-up")
+                            .build())
+                    .toList();
+        }
+        if (path.endsWith("/products")) {
+            return List.of();
+        }
+        return null;
+    }
+
+    private static Object respondGrpc(MethodDescriptor<?, ?> method, Object request) {
+        String name = method.getFullMethodName();
+        if (name.equals(InventoryServiceGrpc.getCheckStockMethod().getFullMethodName())
+                || name.equals(InventoryServiceGrpc.getCheckBasketMethod().getFullMethodName())) {
+            StockCheckRequest check = (StockCheckRequest) request;
+            return StockCheckResponse.newBuilder()
+                    .setProductId(check.getProductId())
+                    .setAvailable(true)
+                    .setAvailableQuantity(check.getQuantity())
+                    .setRequestedQuantity(check.getQuantity())
+                    .build();
+        }
+        if (name.equals(PaymentServiceGrpc.getProcessPaymentMethod().getFullMethodName())) {
+            ProcessPaymentRequest payment = (ProcessPaymentRequest) request;
+            return ProcessPaymentResponse.newBuilder()
+                    .setPaymentId("WARMUP-" + payment.getOrderId())
+                    .setOrderId(payment.getOrderId())
+                    .setStatus("SUCCESSFUL")
+                    .setAmount(new BigDecimal(payment.getAmount()).toPlainString())
+                    .setCurrency(payment.getCurrency())
+                    .build();
+        }
+        return null;
+    }
+
+    private final class StubHttpRequest extends AbstractClientHttpRequest {
+
+        private final URI uri;
+        private final HttpMethod method;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        StubHttpRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            Object response = respondHttp(uri, method, body.toByteArray());
+            if (response == null) {
+                return new StubHttpResponse(HttpStatus.NOT_FOUND, new byte[0]);
+            }
+            return new StubHttpResponse(HttpStatus.OK, objectMapper.writeValueAsBytes(response));
+        }
+    }
+
+    private static final class StubHttpResponse implements ClientHttpResponse {
+
+        private final HttpStatus status;
+        private final byte[] body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        StubHttpResponse(HttpStatus status, byte[] body) {
+            this.status = status;
+            this.body = body;
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(body.length);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public String getStatusText() {
+            return status.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Answers each request message synchronously; works for unary and bidirectional calls
+     */
+    private static final class StubClientCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+
+        private final MethodDescriptor<ReqT, RespT> method;
+        private Listener<RespT> listener;
+        private boolean closed;
+
+        StubClientCall(MethodDescriptor<ReqT, RespT> method) {
+            this.method = method;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            this.listener = responseListener;
+            listener.onHeaders(new Metadata());
+            listener.onReady();
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void sendMessage(ReqT message) {
+            if (closed) {
+                return;
+            }
+            // Round trip through the marshallers, as the network transport would
+            ReqT request = method.parseRequest(method.streamRequest(message));
+            Object response = respondGrpc(method, request);
+            if (response == null) {
+                close(Status.UNIMPLEMENTED.withDescription(method.getFullMethodName()));
+                return;
+            }
+            listener.onMessage(method.parseResponse(method.streamResponse((RespT) response)));
+        }
+
+        @Override
+        public void halfClose() {
+            close(Status.OK);
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            close(Status.CANCELLED.withDescription(message).withCause(cause));
+        }
+
+        private void close(Status status) {
+            if (!closed) {
+                closed = true;
+                listener.onClose(status, new Metadata());
+            }
+        }
+    }
+}
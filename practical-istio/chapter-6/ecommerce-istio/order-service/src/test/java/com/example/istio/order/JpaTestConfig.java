@@ -0,0 +1,17 @@
+package com.example.istio.order;
+
+import com.example.istio.order.entity.OrderEntity;
+import com.example.istio.order.repository.OrderRepository;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Context of the @DataJpaTest slices: only the JPA layer, since the application class
+ * would pull in its web and metrics beans
+ */
+@Configuration
+@EntityScan(basePackageClasses = OrderEntity.class)
+@EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+public class JpaTestConfig {
+}
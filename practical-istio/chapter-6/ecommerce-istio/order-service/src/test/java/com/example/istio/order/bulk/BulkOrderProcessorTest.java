@@ -0,0 +1,285 @@
+package com.example.istio.order.bulk;
+
+import com.example.istio.order.JpaTestConfig;
+import com.example.istio.order.client.CatalogClient;
+import com.example.istio.order.client.InventoryClient;
+import com.example.istio.order.client.PaymentClient;
+import com.example.istio.order.model.BulkOrderResult;
+import com.example.istio.order.model.InventoryCheckResult;
+import com.example.istio.order.model.OrderStatus;
+import com.example.istio.order.model.PaymentResponse;
+import com.example.istio.order.model.ProductInfo;
+import com.example.istio.order.repository.OrderRepository;
+import com.example.istio.order.service.ProductCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfig.class)
+// Every batch commits through the processor's own TransactionTemplate
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkOrderProcessorTest {
+
+    private static final int QUEUE_CAPACITY = 10;
+    private static final int BATCH_SIZE = 5;
+    private static final int MAX_CONCURRENT_REQUESTS = 2;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Map<String, Integer> stock = Map.of("PROD-1", 1_000_000, "PROD-2", 1_000_000, "PROD-LIMITED", 10);
+    private BulkExecutors executors;
+    private BulkOrderProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+
+        InventoryClient inventoryClient = (productId, quantity) -> {
+            int available = stock.getOrDefault(productId, 0);
+            return InventoryCheckResult.builder()
+                    .productId(productId)
+                    .available(available >= quantity)
+                    .availableQuantity(available)
+                    .requestedQuantity(quantity)
+                    .build();
+        };
+        PaymentClient paymentClient = request ->
+                PaymentResponse.success(request.getOrderId(), "PAY-" + request.getOrderId(), null);
+        ProductCatalog productCatalog = new ProductCatalog(new EmptyCatalogClient(), new SimpleMeterRegistry(),
+                Duration.ofSeconds(30));
+
+        executors = new BulkExecutors(new SimpleMeterRegistry(), MAX_CONCURRENT_REQUESTS, 1, 1, 1, 2, 2);
+        processor = new BulkOrderProcessor(inventoryClient, paymentClient, productCatalog, orderRepository,
+                transactionManager, Validation.buildDefaultValidatorFactory().getValidator(), objectMapper,
+                new SimpleMeterRegistry(), OpenTelemetry.noop().getTracer("test"), executors);
+        ReflectionTestUtils.setField(processor, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(processor, "queueCapacity", QUEUE_CAPACITY);
+        ReflectionTestUtils.setField(processor, "validateWorkers", 1);
+        ReflectionTestUtils.setField(processor, "reserveWorkers", 1);
+        ReflectionTestUtils.setField(processor, "persistWorkers", 1);
+        ReflectionTestUtils.setField(processor, "paymentWorkers", 2);
+    }
+
+    @AfterEach
+    void shutdownExecutors() {
+        executors.shutdown();
+    }
+
+    @Test
+    void streamsOneResultPerOrderWhileReadingWithBoundedLookahead() throws IOException {
+        int orders = 2_000;
+        OrderStream request = new OrderStream(orders, i -> "PROD-" + (1 + i % 2));
+        ResultSink response = new ResultSink(Integer.MAX_VALUE);
+        request.sink = response;
+
+        process(request, response);
+
+        List<BulkOrderResult> results = response.results();
+        assertThat(results).extracting(BulkOrderResult::getIndex)
+                .containsExactlyInAnyOrderElementsOf(IntStream.range(0, orders).boxed().toList());
+        assertThat(results).allMatch(result -> result.getStatus() == OrderStatus.COMPLETED);
+        assertThat(orderRepository.count()).isEqualTo(orders);
+        // Stage queues, batches in the workers and the parser's read buffer; far below the order count
+        assertThat(request.maxAhead).isLessThan(200);
+    }
+
+    @Test
+    void allocatesStockAcrossBatchesOfOneRequest() throws IOException {
+        OrderStream request = new OrderStream(30, i -> "PROD-LIMITED");
+        ResultSink response = new ResultSink(Integer.MAX_VALUE);
+
+        process(request, response);
+
+        List<BulkOrderResult> results = response.results();
+        assertThat(results).hasSize(30);
+        assertThat(results).filteredOn(result -> result.getStatus() == OrderStatus.COMPLETED).hasSize(10);
+        assertThat(results).filteredOn(result -> result.getStatus() == OrderStatus.FAILED).hasSize(20);
+    }
+
+    @Test
+    void stopsReadingAndReleasesEveryThreadWhenTheClientDisconnects() throws Exception {
+        OrderStream request = new OrderStream(-1, i -> "PROD-1");
+        ResultSink response = new ResultSink(20);
+
+        assertThatThrownBy(() -> process(request, response)).isInstanceOf(IOException.class);
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (busyThreads() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(busyThreads()).isZero();
+        // Every slot is free again
+        for (int i = 0; i < MAX_CONCURRENT_REQUESTS; i++) {
+            assertThat(processor.tryAdmit()).isTrue();
+        }
+
+        long read = request.produced;
+        Thread.sleep(200);
+        assertThat(request.produced).isEqualTo(read);
+    }
+
+    @Test
+    void turnsRequestsAwayWhileAllSlotsAreTaken() throws IOException {
+        for (int i = 0; i < MAX_CONCURRENT_REQUESTS; i++) {
+            assertThat(processor.tryAdmit()).isTrue();
+        }
+        assertThat(processor.tryAdmit()).isFalse();
+
+        // Finishing one admitted request frees its slot
+        processor.process(() -> new OrderStream(10, i -> "PROD-1"), new ResultSink(Integer.MAX_VALUE));
+
+        assertThat(processor.tryAdmit()).isTrue();
+        assertThat(processor.tryAdmit()).isFalse();
+    }
+
+    private void process(InputStream request, OutputStream response) throws IOException {
+        assertThat(processor.tryAdmit()).isTrue();
+        processor.process(() -> request, response);
+    }
+
+    private int busyThreads() {
+        return executors.pipeline().getActiveCount() + executors.checkPool().getActiveCount();
+    }
+
+    /**
+     * A JSON array of single-item orders generated while it is read; endless if the count is negative
+     */
+    private static class OrderStream extends InputStream {
+
+        private final int count;
+        private final IntFunction<String> productOf;
+        private byte[] chunk = "[".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        volatile long produced;
+        volatile long maxAhead;
+        ResultSink sink;
+
+        OrderStream(int count, IntFunction<String> productOf) {
+            this.count = count;
+            this.productOf = productOf;
+        }
+
+        @Override
+        public int read() {
+            if (position == chunk.length && !nextChunk()) {
+                return -1;
+            }
+            return chunk[position++] & 0xff;
+        }
+
+        private boolean nextChunk() {
+            if (count >= 0 && produced > count) {
+                return false;
+            }
+            String json;
+            if (count >= 0 && produced == count) {
+                json = "]";
+            } else {
+                int i = (int) produced;
+                json = (i == 0 ? "" : ",") + "{\"customerId\":\"CUST-" + i + "\",\"items\":[{\"productId\":\""
+                        + productOf.apply(i) + "\",\"unitPrice\":9.99,\"quantity\":1}]}";
+            }
+            produced++;
+            if (sink != null) {
+                maxAhead = Math.max(maxAhead, produced - sink.lines);
+            }
+            chunk = json.getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+
+    /**
+     * Collects the NDJSON lines; fails like a disconnected client after the given number of lines
+     */
+    private class ResultSink extends OutputStream {
+
+        private final int failAfter;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private volatile boolean closed;
+        volatile int lines;
+
+        ResultSink(int failAfter) {
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (closed) {
+                throw new IOException("Response already closed");
+            }
+            if (lines >= failAfter) {
+                throw new IOException("Broken pipe");
+            }
+            buffer.write(b);
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        List<BulkOrderResult> results() throws IOException {
+            List<BulkOrderResult> results = new ArrayList<>();
+            for (String line : buffer.toString(StandardCharsets.UTF_8).split("\n")) {
+                results.add(objectMapper.readValue(line, BulkOrderResult.class));
+            }
+            return results;
+        }
+    }
+
+    private static class EmptyCatalogClient implements CatalogClient {
+
+        @Override
+        public List<ProductInfo> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public List<ProductInfo> findUpdatedSince(LocalDateTime since) {
+            return List.of();
+        }
+
+        @Override
+        public List<ProductInfo> findByIds(Collection<String> productIds) {
+            return List.of();
+        }
+    }
+}
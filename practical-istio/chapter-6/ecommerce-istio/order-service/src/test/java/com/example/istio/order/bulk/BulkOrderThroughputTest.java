@@ -0,0 +1,192 @@
+package com.example.istio.order.bulk;
+
+import com.example.istio.order.JpaTestConfig;
+import com.example.istio.order.client.CatalogClient;
+import com.example.istio.order.client.InventoryClient;
+import com.example.istio.order.client.PaymentClient;
+import com.example.istio.order.model.InventoryCheckResult;
+import com.example.istio.order.model.OrderItemRequest;
+import com.example.istio.order.model.OrderRequest;
+import com.example.istio.order.model.OrderResponse;
+import com.example.istio.order.model.OrderStatus;
+import com.example.istio.order.model.PaymentResponse;
+import com.example.istio.order.model.ProductInfo;
+import com.example.istio.order.repository.OrderRepository;
+import com.example.istio.order.service.OrderService;
+import com.example.istio.order.service.ProductCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import jakarta.validation.Validation;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One bulk request against the same orders sent as single-order calls by a client with as many
+ * threads as the pipeline has payment workers. Inventory and payment answer after a fixed delay,
+ * like remote calls; the measured rates are logged.
+ */
+@Slf4j
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfig.class)
+// Every order commits on its own, as it does from the controllers
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkOrderThroughputTest {
+
+    private static final int ORDERS = 400;
+    private static final int CLIENT_THREADS = 8;
+    private static final long INVENTORY_MILLIS = 3;
+    private static final long PAYMENT_MILLIS = 5;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final InventoryClient inventoryClient = (productId, quantity) -> {
+        pause(INVENTORY_MILLIS);
+        return InventoryCheckResult.builder()
+                .productId(productId)
+                .available(true)
+                .availableQuantity(1_000_000)
+                .requestedQuantity(quantity)
+                .build();
+    };
+    private final PaymentClient paymentClient = request -> {
+        pause(PAYMENT_MILLIS);
+        return PaymentResponse.success(request.getOrderId(), "PAY-" + request.getOrderId(), null);
+    };
+    private BulkExecutors executors;
+    private ProductCatalog productCatalog;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+        productCatalog = new ProductCatalog(new EmptyCatalogClient(), new SimpleMeterRegistry(),
+                Duration.ofSeconds(30));
+        executors = new BulkExecutors(new SimpleMeterRegistry(), 1, 2, 1, 2, CLIENT_THREADS, 16);
+    }
+
+    @AfterEach
+    void shutdownExecutors() {
+        executors.shutdown();
+    }
+
+    @Test
+    void bulkRequestOutrunsSingleOrderCalls() throws Exception {
+        OrderService orderService = new OrderService(inventoryClient, paymentClient, productCatalog,
+                new SimpleMeterRegistry(), OpenTelemetry.noop().getTracer("test"), orderRepository);
+        // One transaction per order, as the @Transactional proxy opens for the controller
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService client = Executors.newFixedThreadPool(CLIENT_THREADS);
+        long singleStart = System.nanoTime();
+        List<Future<OrderResponse>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                OrderRequest request = request(i);
+                responses.add(client.submit(() -> transaction.execute(status -> orderService.processOrder(request))));
+            }
+            for (Future<OrderResponse> response : responses) {
+                assertThat(response.get().getStatus()).isEqualTo(OrderStatus.COMPLETED);
+            }
+        } finally {
+            client.shutdownNow();
+        }
+        double singleRate = ratePerSecond(singleStart);
+
+        BulkOrderProcessor processor = new BulkOrderProcessor(inventoryClient, paymentClient, productCatalog,
+                orderRepository, transactionManager, Validation.buildDefaultValidatorFactory().getValidator(),
+                objectMapper, new SimpleMeterRegistry(), OpenTelemetry.noop().getTracer("test"), executors);
+        ReflectionTestUtils.setField(processor, "batchSize", 50);
+        ReflectionTestUtils.setField(processor, "queueCapacity", 200);
+        ReflectionTestUtils.setField(processor, "validateWorkers", 2);
+        ReflectionTestUtils.setField(processor, "reserveWorkers", 1);
+        ReflectionTestUtils.setField(processor, "persistWorkers", 2);
+        ReflectionTestUtils.setField(processor, "paymentWorkers", CLIENT_THREADS);
+        byte[] body = objectMapper.writeValueAsBytes(IntStream.range(0, ORDERS).mapToObj(this::request).toList());
+        ByteArrayOutputStream results = new ByteArrayOutputStream();
+
+        long bulkStart = System.nanoTime();
+        assertThat(processor.tryAdmit()).isTrue();
+        processor.process(() -> new ByteArrayInputStream(body), results);
+        double bulkRate = ratePerSecond(bulkStart);
+
+        log.info("{} orders: single-order calls {} orders/s, bulk {} orders/s ({}x)", ORDERS,
+                Math.round(singleRate), Math.round(bulkRate), String.format("%.1f", bulkRate / singleRate));
+        assertThat(results.toString(StandardCharsets.UTF_8).lines())
+                .hasSize(ORDERS)
+                .allMatch(line -> line.contains("\"COMPLETED\""));
+        assertThat(orderRepository.count()).isEqualTo(2L * ORDERS);
+        // Batched checks and saves leave payment as the only per-order remote call
+        assertThat(bulkRate).isGreaterThan(singleRate);
+    }
+
+    private OrderRequest request(int i) {
+        return OrderRequest.builder()
+                .customerId("CUST-" + i)
+                .items(List.of(OrderItemRequest.builder()
+                        .productId("PROD-" + (1 + i % 4))
+                        .unitPrice(new BigDecimal("9.99"))
+                        .quantity(1)
+                        .build()))
+                .build();
+    }
+
+    private static double ratePerSecond(long startNanos) {
+        return ORDERS * 1e9 / (System.nanoTime() - startNanos);
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class EmptyCatalogClient implements CatalogClient {
+
+        @Override
+        public List<ProductInfo> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public List<ProductInfo> findUpdatedSince(LocalDateTime since) {
+            return List.of();
+        }
+
+        @Override
+        public List<ProductInfo> findByIds(Collection<String> productIds) {
+            return List.of();
+        }
+    }
+}
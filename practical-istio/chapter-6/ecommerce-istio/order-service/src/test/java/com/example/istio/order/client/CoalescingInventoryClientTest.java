@@ -0,0 +1,172 @@
+package com.example.istio.order.client;
+
+import com.example.istio.order.model.InventoryCheckResult;
+import com.example.istio.order.model.OrderItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingInventoryClientTest {
+
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlockingInventoryClient transport = new BlockingInventoryClient();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void stopCallers() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentChecksOfOneProductShareOneDownstreamCall() throws Exception {
+        CoalescingInventoryClient client = new CoalescingInventoryClient(transport, meterRegistry, Duration.ZERO);
+
+        List<Future<InventoryCheckResult>> results = checkConcurrently(client);
+        transport.release.countDown();
+
+        for (int i = 0; i < CALLERS; i++) {
+            InventoryCheckResult result = results.get(i).get(5, TimeUnit.SECONDS);
+            // Every caller compares its own quantity with the one shared stock level
+            assertThat(result.getRequestedQuantity()).isEqualTo(i + 1);
+            assertThat(result.getAvailableQuantity()).isEqualTo(5);
+            assertThat(result.isAvailable()).isEqualTo(i + 1 <= 5);
+        }
+        assertThat(transport.stockCalls).hasValue(1);
+        assertThat(meterRegistry.get("inventory.check.collapse.ratio").gauge().value())
+                .isEqualTo((double) (CALLERS - 1) / CALLERS);
+    }
+
+    @Test
+    void downstreamFailureReachesEveryWaiter() throws Exception {
+        CoalescingInventoryClient client = new CoalescingInventoryClient(transport, meterRegistry, Duration.ZERO);
+        transport.failure = new IllegalStateException("inventory-service unavailable");
+
+        List<Future<InventoryCheckResult>> results = checkConcurrently(client);
+        transport.release.countDown();
+
+        for (Future<InventoryCheckResult> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(transport.failure);
+        }
+        assertThat(transport.stockCalls).hasValue(1);
+
+        // The failed call is not remembered, the next check goes downstream again
+        transport.failure = null;
+        assertThat(client.checkStock("P-1", 1).isAvailable()).isTrue();
+        assertThat(transport.stockCalls).hasValue(2);
+    }
+
+    @Test
+    void recentAnswerIsReusedWithinTheTtl() {
+        transport.release.countDown();
+        CoalescingInventoryClient client = new CoalescingInventoryClient(transport, meterRegistry,
+                Duration.ofMinutes(1));
+
+        client.checkStock("P-1", 1);
+        InventoryCheckResult result = client.checkStock("P-1", 7);
+
+        assertThat(result.isAvailable()).isFalse();
+        assertThat(transport.stockCalls).hasValue(1);
+    }
+
+    @Test
+    void basketGoesToTheTransportClientAsOneCall() {
+        transport.release.countDown();
+        CoalescingInventoryClient client = new CoalescingInventoryClient(transport, meterRegistry, Duration.ZERO);
+
+        List<InventoryCheckResult> results = client.checkBasket(List.of(item("P-1", 2), item("P-2", 3)));
+
+        assertThat(results).extracting(InventoryCheckResult::getProductId).containsExactly("P-1", "P-2");
+        assertThat(transport.basketCalls).hasValue(1);
+        assertThat(transport.stockCalls).hasValue(0);
+    }
+
+    /**
+     * Starts every caller and returns once all but the first are waiting on its call
+     */
+    private List<Future<InventoryCheckResult>> checkConcurrently(CoalescingInventoryClient client)
+            throws InterruptedException {
+        List<Future<InventoryCheckResult>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            int quantity = i + 1;
+            results.add(callers.submit(() -> client.checkStock("P-1", quantity)));
+            if (i == 0) {
+                assertThat(transport.entered.await(5, TimeUnit.SECONDS)).isTrue();
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (collapsed() < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(collapsed()).isEqualTo(CALLERS - 1);
+        return results;
+    }
+
+    private double collapsed() {
+        return meterRegistry.get("inventory.check.requests").tag("source", "collapsed").counter().count();
+    }
+
+    private static OrderItem item(String productId, int quantity) {
+        return OrderItem.builder().productId(productId).quantity(quantity).build();
+    }
+
+    /**
+     * Holds five of every product and answers once released
+     */
+    private static class BlockingInventoryClient implements InventoryClient {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger stockCalls = new AtomicInteger();
+        private final AtomicInteger basketCalls = new AtomicInteger();
+        private volatile RuntimeException failure;
+
+        @Override
+        public InventoryCheckResult checkStock(String productId, int quantity) {
+            stockCalls.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return result(productId, quantity);
+        }
+
+        @Override
+        public List<InventoryCheckResult> checkBasket(List<OrderItem> items) {
+            basketCalls.incrementAndGet();
+            return items.stream().map(item -> result(item.getProductId(), item.getQuantity())).toList();
+        }
+
+        private static InventoryCheckResult result(String productId, int quantity) {
+            return InventoryCheckResult.builder()
+                    .productId(productId)
+                    .available(quantity <= 5)
+                    .availableQuantity(5)
+                    .requestedQuantity(quantity)
+                    .build();
+        }
+    }
+}
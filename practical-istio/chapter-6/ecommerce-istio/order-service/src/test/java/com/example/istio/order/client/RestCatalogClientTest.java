@@ -0,0 +1,49 @@
+package com.example.istio.order.client;
+
+import com.example.istio.order.model.ProductInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RestCatalogClientTest {
+
+    private static final String BATCH_URL = "http://inventory-service:8080/api/inventory/products/batch";
+
+    @Test
+    void splitsLookupsIntoBatchesTheServerAccepts() {
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        RestCatalogClient client = new RestCatalogClient(restTemplate);
+        ReflectionTestUtils.setField(client, "inventoryServiceUrl", "http://inventory-service:8080/api/inventory");
+        ReflectionTestUtils.setField(client, "maxBatchSize", 2);
+
+        expectBatch(server, "[\"PROD-1\",\"PROD-2\"]", "[{\"productId\":\"PROD-1\"},{\"productId\":\"PROD-2\"}]");
+        expectBatch(server, "[\"PROD-3\",\"PROD-4\"]", "[{\"productId\":\"PROD-4\"}]");
+        expectBatch(server, "[\"PROD-5\"]", "[]");
+
+        List<ProductInfo> products = client.findByIds(
+                IntStream.rangeClosed(1, 5).mapToObj(i -> "PROD-" + i).toList());
+
+        server.verify();
+        assertThat(products).extracting(ProductInfo::getProductId).containsExactly("PROD-1", "PROD-2", "PROD-4");
+    }
+
+    private static void expectBatch(MockRestServiceServer server, String ids, String response) {
+        server.expect(requestTo(BATCH_URL))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().json(ids, true))
+                .andRespond(withSuccess(response, MediaType.APPLICATION_JSON));
+    }
+}
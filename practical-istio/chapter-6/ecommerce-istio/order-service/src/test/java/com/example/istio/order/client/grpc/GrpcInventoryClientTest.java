@@ -0,0 +1,222 @@
+package com.example.istio.order.client.grpc;
+
+import com.example.istio.order.client.InventoryShardKey;
+import com.example.istio.order.grpc.inventory.InventoryServiceGrpc;
+import com.example.istio.order.grpc.inventory.StockCheckRequest;
+import com.example.istio.order.grpc.inventory.StockCheckResponse;
+import com.example.istio.order.model.InventoryCheckResult;
+import com.example.istio.order.model.OrderItem;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GrpcInventoryClientTest {
+
+    private static final Metadata.Key<String> TRACEPARENT =
+            Metadata.Key.of("traceparent", Metadata.ASCII_STRING_MARSHALLER);
+    private static final Metadata.Key<String> SHARD_KEY =
+            Metadata.Key.of("x-inventory-shard-key", Metadata.ASCII_STRING_MARSHALLER);
+    private static final Metadata.Key<String> CALLER =
+            Metadata.Key.of("x-caller-id", Metadata.ASCII_STRING_MARSHALLER);
+    private static final int SHARD_COUNT = 64;
+
+    private final Map<String, Integer> stock = new ConcurrentHashMap<>(Map.of("P-1", 10, "P-2", 3));
+    private final List<Metadata> receivedHeaders = new CopyOnWriteArrayList<>();
+
+    private Server server;
+    private ManagedChannel channel;
+    private GrpcInventoryClient client;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        ServerInterceptor captureHeaders = new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                         ServerCallHandler<ReqT, RespT> next) {
+                receivedHeaders.add(headers);
+                return next.startCall(call, headers);
+            }
+        };
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(new FakeInventoryService(), captureHeaders))
+                .build()
+                .start();
+
+        OpenTelemetry openTelemetry = OpenTelemetry.propagating(
+                ContextPropagators.create(W3CTraceContextPropagator.getInstance()));
+        channel = InProcessChannelBuilder.forName(name)
+                .intercept(new TracingClientInterceptor(openTelemetry))
+                .build();
+        client = new GrpcInventoryClient(channel, 500, "x-inventory-shard-key", SHARD_COUNT,
+                "x-caller-id", "order-service");
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void checkStockMapsUnaryResponse() {
+        InventoryCheckResult result = client.checkStock("P-1", 4);
+
+        assertThat(result.getProductId()).isEqualTo("P-1");
+        assertThat(result.isAvailable()).isTrue();
+        assertThat(result.getAvailableQuantity()).isEqualTo(10);
+        assertThat(result.getRequestedQuantity()).isEqualTo(4);
+        assertThat(receivedHeaders).extracting(headers -> headers.get(SHARD_KEY))
+                .containsExactly(InventoryShardKey.of("P-1", SHARD_COUNT));
+        assertThat(receivedHeaders).extracting(headers -> headers.get(CALLER)).containsExactly("order-service");
+    }
+
+    @Test
+    void checkBasketReturnsOneResultPerItemInBasketOrder() {
+        List<InventoryCheckResult> results = client.checkBasket(List.of(
+                item("P-1", 2), item("P-2", 5), item("P-unknown", 1)));
+
+        assertThat(results).extracting(InventoryCheckResult::getProductId)
+                .containsExactly("P-1", "P-2", "P-unknown");
+        assertThat(results).extracting(InventoryCheckResult::isAvailable)
+                .containsExactly(true, false, false);
+    }
+
+    @Test
+    void checkBasketOpensOneStreamPerShardKeyedByShard() {
+        List<String> productIds = List.of("P-1", "P-2", "P-3", "P-4", "P-5", "P-6");
+        Set<String> shards = productIds.stream()
+                .map(productId -> InventoryShardKey.of(productId, SHARD_COUNT))
+                .collect(Collectors.toSet());
+
+        client.checkBasket(productIds.stream().map(productId -> item(productId, 1)).toList());
+
+        assertThat(receivedHeaders).extracting(headers -> headers.get(SHARD_KEY))
+                .containsExactlyInAnyOrderElementsOf(shards);
+    }
+
+    @Test
+    void checkBasketSharesOneStreamForItemsOfOneShard() {
+        GrpcInventoryClient singleShard = new GrpcInventoryClient(channel, 500, "x-inventory-shard-key", 1,
+                "x-caller-id", "order-service");
+
+        List<InventoryCheckResult> results = singleShard.checkBasket(List.of(
+                item("P-1", 2), item("P-2", 5), item("P-unknown", 1)));
+
+        assertThat(results).extracting(InventoryCheckResult::getProductId)
+                .containsExactly("P-1", "P-2", "P-unknown");
+        assertThat(receivedHeaders).extracting(headers -> headers.get(SHARD_KEY)).containsExactly("0");
+    }
+
+    @Test
+    void checkStockFailsWithDeadlineExceededWhenServerDoesNotAnswer() {
+        assertThatThrownBy(() -> client.checkStock("SLOW", 1))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+    }
+
+    @Test
+    void checkBasketFailsWithDeadlineExceededWhenStreamDoesNotComplete() {
+        assertThatThrownBy(() -> client.checkBasket(List.of(item("P-1", 1), item("SLOW", 1))))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+    }
+
+    @Test
+    void propagatesTraceparentOfCurrentSpan() {
+        SpanContext parent = SpanContext.create("0af7651916cd43dd8448eb211c80319c", "b7ad6b7169203331",
+                TraceFlags.getSampled(), TraceState.getDefault());
+
+        try (Scope scope = Context.root().with(Span.wrap(parent)).makeCurrent()) {
+            client.checkStock("P-1", 1);
+            client.checkBasket(List.of(item("P-2", 1)));
+        }
+
+        assertThat(receivedHeaders).extracting(headers -> headers.get(TRACEPARENT))
+                .containsOnly("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+    }
+
+    private static OrderItem item(String productId, int quantity) {
+        return OrderItem.builder().productId(productId).quantity(quantity).build();
+    }
+
+    private class FakeInventoryService extends InventoryServiceGrpc.InventoryServiceImplBase {
+
+        @Override
+        public void checkStock(StockCheckRequest request, StreamObserver<StockCheckResponse> responseObserver) {
+            if ("SLOW".equals(request.getProductId())) {
+                return; // never answers, the client deadline has to end the call
+            }
+            responseObserver.onNext(respond(request));
+            responseObserver.onCompleted();
+        }
+
+        @Override
+        public StreamObserver<StockCheckRequest> checkBasket(StreamObserver<StockCheckResponse> responseObserver) {
+            return new StreamObserver<>() {
+                private boolean stalled;
+
+                @Override
+                public void onNext(StockCheckRequest request) {
+                    stalled |= "SLOW".equals(request.getProductId());
+                    if (!stalled) {
+                        responseObserver.onNext(respond(request));
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    if (!stalled) {
+                        responseObserver.onCompleted();
+                    }
+                }
+            };
+        }
+
+        private StockCheckResponse respond(StockCheckRequest request) {
+            int available = stock.getOrDefault(request.getProductId(), 0);
+            return StockCheckResponse.newBuilder()
+                    .setProductId(request.getProductId())
+                    .setAvailable(available >= request.getQuantity())
+                    .setAvailableQuantity(available)
+                    .setRequestedQuantity(request.getQuantity())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.istio.order.client.grpc;
+
+import com.example.istio.order.grpc.payment.PaymentServiceGrpc;
+import com.example.istio.order.grpc.payment.ProcessPaymentRequest;
+import com.example.istio.order.grpc.payment.ProcessPaymentResponse;
+import com.example.istio.order.model.Money;
+import com.example.istio.order.model.PaymentRequest;
+import com.example.istio.order.model.PaymentResponse;
+import com.example.istio.order.model.PaymentStatus;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GrpcPaymentClientTest {
+
+    private static final Metadata.Key<String> TRACEPARENT =
+            Metadata.Key.of("traceparent", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final AtomicReference<ProcessPaymentRequest> receivedRequest = new AtomicReference<>();
+    private final AtomicReference<Metadata> receivedHeaders = new AtomicReference<>();
+    private final AtomicReference<ProcessPaymentResponse> nextResponse = new AtomicReference<>();
+
+    private Server server;
+    private ManagedChannel channel;
+    private GrpcPaymentClient client;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        ServerInterceptor captureHeaders = new ServerInterceptor() {
+            @Override
+            public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                         ServerCallHandler<ReqT, RespT> next) {
+                receivedHeaders.set(headers);
+                return next.startCall(call, headers);
+            }
+        };
+        PaymentServiceGrpc.PaymentServiceImplBase service = new PaymentServiceGrpc.PaymentServiceImplBase() {
+            @Override
+            public void processPayment(ProcessPaymentRequest request,
+                                       StreamObserver<ProcessPaymentResponse> responseObserver) {
+                receivedRequest.set(request);
+                ProcessPaymentResponse response = nextResponse.get();
+                if (response == null) {
+                    return; // never answers, the client deadline has to end the call
+                }
+                responseObserver.onNext(response);
+                responseObserver.onCompleted();
+            }
+        };
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(service, captureHeaders))
+                .build()
+                .start();
+
+        OpenTelemetry openTelemetry = OpenTelemetry.propagating(
+                ContextPropagators.create(W3CTraceContextPropagator.getInstance()));
+        channel = InProcessChannelBuilder.forName(name)
+                .intercept(new TracingClientInterceptor(openTelemetry))
+                .build();
+        client = new GrpcPaymentClient(channel, 500);
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void processPaymentSendsAmountAsPlainDecimalAndMapsResponse() {
+        nextResponse.set(ProcessPaymentResponse.newBuilder()
+                .setPaymentId("PAY-1")
+                .setOrderId("ORD-1")
+                .setStatus("SUCCESSFUL")
+                .setAmount("1299.99")
+                .setCurrency("USD")
+                .setTransactionId("TX-1")
+                .build());
+
+        PaymentResponse response = client.processPayment(
+                new PaymentRequest("ORD-1", Money.of(new BigDecimal("1299.99"))));
+
+        assertThat(receivedRequest.get().getAmount()).isEqualTo("1299.99");
+        assertThat(receivedRequest.get().getCurrency()).isEqualTo("USD");
+        assertThat(response.isSuccess()).isTrue();
+        assertThat(response.getPaymentId()).isEqualTo("PAY-1");
+        assertThat(response.getAmount()).isEqualByComparingTo("1299.99");
+        assertThat(response.getErrorMessage()).isNull();
+    }
+
+    @Test
+    void unsetOrUnknownStatusIsTreatedAsFailure() {
+        nextResponse.set(ProcessPaymentResponse.newBuilder()
+                .setOrderId("ORD-1")
+                .setErrorMessage("declined")
+                .build());
+
+        PaymentResponse response = client.processPayment(
+                new PaymentRequest("ORD-1", Money.of(new BigDecimal("10.00"))));
+
+        assertThat(response.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(response.getAmount()).isNull();
+        assertThat(response.getErrorMessage()).isEqualTo("declined");
+        assertThat(GrpcPaymentClient.toStatus("SETTLED_LATER")).isEqualTo(PaymentStatus.FAILED);
+    }
+
+    @Test
+    void processPaymentFailsWithDeadlineExceededWhenServerDoesNotAnswer() {
+        assertThatThrownBy(() -> client.processPayment(
+                new PaymentRequest("ORD-1", Money.of(new BigDecimal("10.00")))))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+    }
+
+    @Test
+    void propagatesTraceparentOfCurrentSpan() {
+        nextResponse.set(ProcessPaymentResponse.newBuilder().setStatus("SUCCESSFUL").build());
+        SpanContext parent = SpanContext.create("4bf92f3577b34da6a3ce929d0e0e4736", "00f067aa0ba902b7",
+                TraceFlags.getSampled(), TraceState.getDefault());
+
+        try (Scope scope = Context.root().with(Span.wrap(parent)).makeCurrent()) {
+            client.processPayment(new PaymentRequest("ORD-1", Money.of(new BigDecimal("10.00"))));
+        }
+
+        assertThat(receivedHeaders.get().get(TRACEPARENT))
+                .isEqualTo("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+    }
+}
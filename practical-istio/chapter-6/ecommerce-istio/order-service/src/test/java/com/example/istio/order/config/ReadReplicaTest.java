@@ -0,0 +1,150 @@
+package com.example.istio.order.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.health.HealthContributorAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.health.HealthEndpointAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.jdbc.DataSourceHealthContributorAutoConfiguration;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing between a primary and a replica, each its own H2 database holding a row that names it
+ */
+class ReadReplicaTest {
+
+    private final String primaryUrl = url("primary");
+    private final String replicaUrl = url("replica");
+    private final HikariDataSource primary = dataSource(primaryUrl);
+    private final HikariDataSource replica = dataSource(replicaUrl);
+
+    @AfterEach
+    void closePools() {
+        primary.close();
+        replica.close();
+    }
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() {
+        prepare(primary, "primary");
+        prepare(replica, "replica");
+        ReplicaLagMonitor monitor = monitor("");
+        monitor.checkReplica();
+        DataSource routing = new DataSourceConfig().dataSource(primary, replica, monitor);
+
+        assertThat(readDatabase(routing, true)).isEqualTo("replica");
+        assertThat(readDatabase(routing, false)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaIsUnreachable() {
+        prepare(primary, "primary");
+        prepare(replica, "replica");
+        ReplicaLagMonitor monitor = monitor("");
+        DataSource routing = new DataSourceConfig().dataSource(primary, replica, monitor);
+
+        replica.close();
+        monitor.checkReplica();
+
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(readDatabase(routing, true)).isEqualTo("primary");
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhileTheReplicaLags() {
+        prepare(primary, "primary");
+        prepare(replica, "replica");
+        JdbcTemplate replicaJdbc = new JdbcTemplate(replica);
+        replicaJdbc.execute("CREATE TABLE replica_status (lag_ms BIGINT)");
+        replicaJdbc.update("INSERT INTO replica_status VALUES (5000)");
+        ReplicaLagMonitor monitor = monitor("SELECT lag_ms FROM replica_status");
+        DataSource routing = new DataSourceConfig().dataSource(primary, replica, monitor);
+
+        monitor.checkReplica();
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(readDatabase(routing, true)).isEqualTo("primary");
+
+        // Caught up again, reads go back to the replica on the next check
+        replicaJdbc.update("UPDATE replica_status SET lag_ms = 100");
+        monitor.checkReplica();
+        assertThat(monitor.isReplicaUsable()).isTrue();
+        assertThat(readDatabase(routing, true)).isEqualTo("replica");
+    }
+
+    @Test
+    void replicaOutageKeepsThePodReady() {
+        new ApplicationContextRunner()
+                .withInitializer(new ConfigDataApplicationContextInitializer())
+                .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+                        HealthContributorAutoConfiguration.class, HealthEndpointAutoConfiguration.class,
+                        DataSourceHealthContributorAutoConfiguration.class))
+                .withUserConfiguration(DataSourceConfig.class)
+                // Binds durations such as max-lag: 2s as SpringApplication does
+                .withBean("conversionService", ConversionService.class, ApplicationConversionService::getSharedInstance)
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withPropertyValues(
+                        "spring.datasource.url=" + primaryUrl,
+                        // Nothing listens there; the replica is down from the start
+                        "order.datasource.read.url=" + url("missing") + ";IFEXISTS=TRUE",
+                        "order.datasource.read.hikari.connection-timeout=250",
+                        // The warm-up contributor of the readiness group is not part of this slice
+                        "management.endpoint.health.validate-group-membership=false")
+                .run(context -> {
+                    HealthEndpoint health = context.getBean(HealthEndpoint.class);
+
+                    assertThat(health.healthForPath("db", "readDataSource").getStatus()).isEqualTo(Status.DOWN);
+                    assertThat(health.healthForPath("readiness").getStatus()).isEqualTo(Status.UP);
+                });
+    }
+
+    private ReplicaLagMonitor monitor(String lagQuery) {
+        return new ReplicaLagMonitor(replica, lagQuery, Duration.ofSeconds(2), new SimpleMeterRegistry());
+    }
+
+    private static String readDatabase(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT name FROM whoami", String.class));
+    }
+
+    private static void prepare(DataSource dataSource, String name) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(20))");
+        jdbc.update("INSERT INTO whoami VALUES (?)", name);
+    }
+
+    private static String url(String name) {
+        return "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    }
+
+    private static HikariDataSource dataSource(String url) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username("sa")
+                .password("")
+                .build();
+        dataSource.setConnectionTimeout(250);
+        return dataSource;
+    }
+}
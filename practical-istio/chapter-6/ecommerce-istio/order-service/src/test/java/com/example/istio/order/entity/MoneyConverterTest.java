@@ -0,0 +1,45 @@
+package com.example.istio.order.entity;
+
+import com.example.istio.order.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyConverterTest {
+
+    private final MoneyConverter converter = new MoneyConverter();
+
+    @Test
+    void roundTripsDefaultCurrencyAmounts() {
+        Money money = Money.of(new BigDecimal("1299.99"));
+
+        BigDecimal column = converter.convertToDatabaseColumn(money);
+
+        assertThat(column).isEqualTo(new BigDecimal("1299.99"));
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo(money);
+    }
+
+    @Test
+    void readsColumnsWithWiderScale() {
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("49.9900")))
+                .isEqualTo(Money.of(new BigDecimal("49.99")));
+    }
+
+    @Test
+    void passesNullThrough() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void rejectsOtherCurrencies() {
+        Money eur = Money.of(new BigDecimal("10.00"), Currency.getInstance("EUR"));
+
+        assertThatThrownBy(() -> converter.convertToDatabaseColumn(eur))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
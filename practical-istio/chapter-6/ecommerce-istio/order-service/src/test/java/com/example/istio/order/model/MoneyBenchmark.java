@@ -0,0 +1,75 @@
+package com.example.istio.order.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Order total on Money versus the previous BigDecimal stream reduction.
+ * Run from order-service:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp target/test-classes:target/classes:$(cat target/test.classpath) org.openjdk.jmh.Main MoneyBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"3", "20"})
+    private int itemCount;
+
+    private Order order;
+    private List<BigDecimal> unitPrices;
+    private List<Integer> quantities;
+
+    @Setup
+    public void setUp() {
+        List<OrderItem> items = new ArrayList<>();
+        unitPrices = new ArrayList<>();
+        quantities = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            BigDecimal unitPrice = new BigDecimal(1299 + i + ".99");
+            int quantity = 1 + i % 5;
+            unitPrices.add(unitPrice);
+            quantities.add(quantity);
+            items.add(OrderItem.builder()
+                    .productId("P-" + i)
+                    .quantity(quantity)
+                    .unitPrice(Money.of(unitPrice))
+                    .build());
+        }
+        order = new Order("CUST-BENCH");
+        order.setItems(items);
+    }
+
+    @Benchmark
+    public Money moneyTotal() {
+        order.calculateTotalAmount();
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTotal() {
+        // The stream reduction Order.calculateTotalAmount used before Money
+        return IntStream.range(0, unitPrices.size())
+                .mapToObj(i -> unitPrices.get(i).multiply(new BigDecimal(quantities.get(i))))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.istio.order.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.ValueInstantiationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void convertsDecimalAmountsExactly() {
+        assertThat(Money.of(new BigDecimal("1299.99")).getMinorUnits()).isEqualTo(129999L);
+        assertThat(Money.of(new BigDecimal("5")).getMinorUnits()).isEqualTo(500L);
+        // Trailing zeros beyond the minor unit carry no value and are accepted
+        assertThat(Money.of(new BigDecimal("19.9900")).getMinorUnits()).isEqualTo(1999L);
+        assertThat(Money.of(new BigDecimal("19.99")).toBigDecimal()).isEqualTo(new BigDecimal("19.99"));
+    }
+
+    @Test
+    void rejectsFractionDigitsBeyondTheMinorUnitInsteadOfRounding() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("19.995")))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.001")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void rejectsAmountsThatDoNotFitInLongMinorUnits() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("92233720368547758.08")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void arithmeticFailsOnOverflowInsteadOfWrapping() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, Money.DEFAULT_CURRENCY);
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1, Money.DEFAULT_CURRENCY)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.times(2))
+                .isInstanceOf(ArithmeticException.class);
+        assertThat(Money.of(new BigDecimal("49.99")).times(3)).isEqualTo(Money.of(new BigDecimal("149.97")));
+    }
+
+    @Test
+    void rejectsCurrencyMismatch() {
+        Money usd = Money.of(new BigDecimal("10.00"));
+        Money eur = Money.of(new BigDecimal("10.00"), EUR);
+
+        assertThatThrownBy(() -> usd.plus(eur)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> usd.compareTo(eur)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(usd).isNotEqualTo(eur);
+    }
+
+    @Test
+    void orderTotalRejectsMixedCurrencies() {
+        Order order = new Order("CUST-1");
+        order.setItems(List.of(
+                OrderItem.builder().productId("P-1").quantity(1).unitPrice(Money.of(BigDecimal.ONE)).build(),
+                OrderItem.builder().productId("P-2").quantity(1).unitPrice(Money.of(BigDecimal.ONE, EUR)).build()));
+
+        assertThatThrownBy(order::calculateTotalAmount).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void roundTripsThroughJsonAsPlainDecimal() throws Exception {
+        PaymentRequest request = new PaymentRequest("ORD-1", Money.of(new BigDecimal("1299.99")));
+
+        String json = objectMapper.writeValueAsString(request);
+        PaymentRequest read = objectMapper.readValue(json, PaymentRequest.class);
+
+        assertThat(json).contains("\"amount\":1299.99");
+        assertThat(read.getAmount()).isEqualTo(request.getAmount());
+    }
+
+    @Test
+    void jsonWithExcessScaleIsRejected() {
+        assertThatThrownBy(() -> objectMapper.readValue("{\"orderId\":\"ORD-1\",\"amount\":19.995}", PaymentRequest.class))
+                .isInstanceOf(ValueInstantiationException.class)
+                .hasRootCauseInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void orderItemRequestWithExcessScaleFailsValidationBeforeConversion() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        OrderItemRequest item = OrderItemRequest.builder()
+                .productId("P-1")
+                .quantity(1)
+                .unitPrice(new BigDecimal("19.995"))
+                .build();
+
+        assertThat(validator.validate(item))
+                .extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactly("unitPrice");
+    }
+}
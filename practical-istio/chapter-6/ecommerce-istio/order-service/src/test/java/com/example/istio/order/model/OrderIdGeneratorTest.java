@@ -0,0 +1,113 @@
+package com.example.istio.order.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderIdGeneratorTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void issuesVersion7IdsWithTheClockMillisecond() {
+        UUID id = new OrderIdGenerator(() -> NOW).next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(NOW);
+    }
+
+    @Test
+    void idsAreStrictlyIncreasingWithinAMillisecond() {
+        OrderIdGenerator generator = new OrderIdGenerator(() -> NOW);
+
+        UUID previous = generator.next();
+        for (int i = 0; i < 1000; i++) {
+            UUID next = generator.next();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void counterRolloverSpillsIntoTheNextMillisecond() {
+        OrderIdGenerator generator = new OrderIdGenerator(() -> NOW);
+
+        UUID last = null;
+        for (int i = 0; i < 4096; i++) {
+            last = generator.next();
+        }
+        UUID spilled = generator.next();
+
+        assertThat(last.getMostSignificantBits() >>> 16).isEqualTo(NOW);
+        assertThat(last.getMostSignificantBits() & 0xFFF).isEqualTo(0xFFF);
+        assertThat(spilled.getMostSignificantBits() >>> 16).isEqualTo(NOW + 1);
+        assertThat(spilled.getMostSignificantBits() & 0xFFF).isZero();
+        assertThat(spilled).isGreaterThan(last);
+    }
+
+    @Test
+    void staysMonotonicWhenTheClockStepsBack() {
+        AtomicLong clock = new AtomicLong(NOW);
+        OrderIdGenerator generator = new OrderIdGenerator(clock::get);
+
+        UUID beforeStep = generator.next();
+        clock.set(NOW - 5_000);
+        UUID afterStep = generator.next();
+
+        assertThat(afterStep).isGreaterThan(beforeStep);
+        assertThat(afterStep.getMostSignificantBits() >>> 16).isEqualTo(NOW);
+    }
+
+    @Test
+    void concurrentCallersGetUniqueIncreasingIds() throws Exception {
+        OrderIdGenerator generator = new OrderIdGenerator(System::currentTimeMillis);
+        Set<UUID> all = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    UUID previous = generator.next();
+                    all.add(previous);
+                    boolean increasing = true;
+                    for (int i = 0; i < 10_000; i++) {
+                        UUID next = generator.next();
+                        increasing &= next.compareTo(previous) > 0;
+                        all.add(next);
+                        previous = next;
+                    }
+                    return increasing;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertThat(result.get()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(all).hasSize(8 * 10_001);
+    }
+
+    @Test
+    void rangeBoundsEncloseEveryIdOfTheirMillisecond() {
+        OrderIdGenerator generator = new OrderIdGenerator(() -> NOW);
+        UUID first = generator.next();
+        UUID second = generator.next();
+
+        assertThat(OrderIdGenerator.minIdAt(NOW)).isLessThanOrEqualTo(first);
+        assertThat(OrderIdGenerator.maxIdAt(NOW)).isGreaterThan(second);
+        assertThat(OrderIdGenerator.maxIdAt(NOW - 1)).isLessThan(first);
+        assertThat(OrderIdGenerator.minIdAt(NOW + 1)).isGreaterThan(OrderIdGenerator.maxIdAt(NOW));
+    }
+}
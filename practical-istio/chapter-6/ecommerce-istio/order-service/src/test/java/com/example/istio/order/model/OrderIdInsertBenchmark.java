@@ -0,0 +1,116 @@
+package com.example.istio.order.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batched inserts into an already large orders table: random v4 ids stored as text, as before,
+ * and random v4 or time-ordered v7 ids stored as binary UUIDs. Runs against embedded H2;
+ * point the JDBC URL at a real database for production figures.
+ * Run from order-service:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp target/test-classes:target/classes:$(cat target/test.classpath) org.openjdk.jmh.Main OrderIdInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderIdInsertBenchmark {
+
+    public enum IdScheme {
+        V4_TEXT("varchar(36)"),
+        V4_BINARY("uuid"),
+        V7_BINARY("uuid");
+
+        private final String columnType;
+
+        IdScheme(String columnType) {
+            this.columnType = columnType;
+        }
+
+        Object nextId() {
+            return switch (this) {
+                case V4_TEXT -> UUID.randomUUID().toString();
+                case V4_BINARY -> UUID.randomUUID();
+                case V7_BINARY -> OrderIdGenerator.nextId();
+            };
+        }
+    }
+
+    @Param({"V4_TEXT", "V4_BINARY", "V7_BINARY"})
+    private IdScheme idScheme;
+
+    // Rows in the table before measuring
+    @Param({"1000000"})
+    private int tableSize;
+
+    @Param({"50"})
+    private int batchSize;
+
+    @Param("jdbc:h2:mem:orders_bench;DB_CLOSE_DELAY=-1")
+    private String jdbcUrl;
+
+    private Connection connection;
+    private PreparedStatement insert;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists orders_bench");
+            statement.execute("create table orders_bench (order_id " + idScheme.columnType + " primary key, "
+                    + "customer_id varchar(255), status varchar(32), created_at timestamp)");
+        }
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement(
+                "insert into orders_bench (order_id, customer_id, status, created_at) values (?, ?, ?, ?)");
+        for (int inserted = 0; inserted < tableSize; inserted += batchSize) {
+            insertBatch();
+        }
+    }
+
+    @Benchmark
+    public int insertBatch() throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < batchSize; i++) {
+            insert.setObject(1, idScheme.nextId());
+            insert.setString(2, "CUST-BENCH");
+            insert.setString(3, "COMPLETED");
+            insert.setTimestamp(4, now);
+            insert.addBatch();
+        }
+        int rows = insert.executeBatch().length;
+        connection.commit();
+        return rows;
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table orders_bench");
+        }
+        connection.commit();
+        connection.close();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.istio.order.repository;
+
+import com.example.istio.order.JpaTestConfig;
+import com.example.istio.order.entity.OrderEntity;
+import com.example.istio.order.model.OrderIdGenerator;
+import com.example.istio.order.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfig.class)
+class OrderRepositoryTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void findsOrdersCreatedInATimeRangeByPrimaryKey() {
+        UUID before = save(T0 - 1);
+        UUID first = save(T0);
+        UUID second = save(T0 + 500);
+        UUID last = save(T0 + 1_000);
+        UUID after = save(T0 + 1_001);
+
+        List<UUID> found = orderRepository.findByOrderIdBetweenOrderByOrderId(
+                        OrderIdGenerator.minIdAt(T0), OrderIdGenerator.maxIdAt(T0 + 1_000), PageRequest.ofSize(10))
+                .stream()
+                .map(OrderEntity::getOrderId)
+                .toList();
+
+        assertThat(found).containsExactly(first, second, last).doesNotContain(before, after);
+    }
+
+    @Test
+    void limitsTheRangeScanToThePageSize() {
+        for (int i = 0; i < 5; i++) {
+            save(T0 + i);
+        }
+
+        assertThat(orderRepository.findByOrderIdBetweenOrderByOrderId(
+                OrderIdGenerator.minIdAt(T0), OrderIdGenerator.maxIdAt(T0 + 4), PageRequest.ofSize(3)))
+                .hasSize(3)
+                .extracting(OrderEntity::getOrderId)
+                .isSorted();
+    }
+
+    private UUID save(long epochMillis) {
+        // Ids spread over random bits of their millisecond, as issued by different pods
+        UUID bound = OrderIdGenerator.minIdAt(epochMillis);
+        UUID id = new UUID(bound.getMostSignificantBits() | (epochMillis & 0xFFF),
+                bound.getLeastSignificantBits() | UUID.randomUUID().getLeastSignificantBits() >>> 2);
+        OrderEntity entity = new OrderEntity();
+        entity.setOrderId(id);
+        entity.setCustomerId("CUST-1");
+        entity.setStatus(OrderStatus.COMPLETED);
+        entity.setCreatedAt(LocalDateTime.now());
+        orderRepository.saveAndFlush(entity);
+        return id;
+    }
+}
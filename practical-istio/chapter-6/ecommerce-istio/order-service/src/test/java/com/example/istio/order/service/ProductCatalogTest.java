@@ -0,0 +1,131 @@
+package com.example.istio.order.service;
+
+import com.example.istio.order.client.CatalogClient;
+import com.example.istio.order.model.OrderItem;
+import com.example.istio.order.model.ProductInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCatalogTest {
+
+    private static final ProductInfo LAPTOP = ProductInfo.builder()
+            .productId("PROD-001")
+            .productName("Dell XPS 13 Laptop")
+            .category("Electronics")
+            .catalogUpdated(LocalDateTime.of(2024, 1, 1, 12, 0))
+            .build();
+
+    private final FakeCatalogClient client = new FakeCatalogClient(Map.of(LAPTOP.getProductId(), LAPTOP));
+
+    @Test
+    void fetchesAllMissesOfABasketInOneCall() {
+        ProductCatalog catalog = catalog(Duration.ofSeconds(30));
+        List<OrderItem> items = List.of(item("PROD-001"), item("PROD-404"), item("PROD-001"));
+
+        catalog.enrich(items);
+
+        assertThat(client.batchCalls).containsExactly(List.of("PROD-001", "PROD-404"));
+        assertThat(items.get(0).getProductName()).isEqualTo("Dell XPS 13 Laptop");
+        assertThat(items.get(2).getProductCategory()).isEqualTo("Electronics");
+        assertThat(items.get(1).getProductName()).isNull();
+    }
+
+    @Test
+    void remembersUnknownProductsForTheNegativeTtl() {
+        ProductCatalog catalog = catalog(Duration.ofMinutes(1));
+
+        catalog.enrich(List.of(item("PROD-404")));
+        catalog.enrich(List.of(item("PROD-404"), item("PROD-001")));
+        catalog.enrich(List.of(item("PROD-404"), item("PROD-001")));
+
+        assertThat(client.batchCalls).containsExactly(List.of("PROD-404"), List.of("PROD-001"));
+    }
+
+    @Test
+    void looksUpUnknownProductsAgainWhenNegativeCachingIsDisabled() {
+        ProductCatalog catalog = catalog(Duration.ZERO);
+
+        catalog.enrich(List.of(item("PROD-404")));
+        catalog.enrich(List.of(item("PROD-404")));
+
+        assertThat(client.batchCalls).hasSize(2);
+    }
+
+    @Test
+    void doesNotRememberProductsWhoseLookupFailed() {
+        ProductCatalog catalog = catalog(Duration.ofMinutes(1));
+        client.failing = true;
+        catalog.enrich(List.of(item("PROD-001")));
+
+        client.failing = false;
+        List<OrderItem> items = List.of(item("PROD-001"));
+        catalog.enrich(items);
+
+        assertThat(client.batchCalls).hasSize(2);
+        assertThat(items.get(0).getProductName()).isEqualTo("Dell XPS 13 Laptop");
+    }
+
+    @Test
+    void bulkLoadServesLaterBasketsWithoutCalls() {
+        ProductCatalog catalog = catalog(Duration.ofSeconds(30));
+        catalog.bulkLoad();
+
+        List<OrderItem> items = List.of(item("PROD-001"));
+        catalog.enrich(items);
+
+        assertThat(client.batchCalls).isEmpty();
+        assertThat(items.get(0).getProductName()).isEqualTo("Dell XPS 13 Laptop");
+    }
+
+    private ProductCatalog catalog(Duration negativeTtl) {
+        return new ProductCatalog(client, new SimpleMeterRegistry(), negativeTtl);
+    }
+
+    private static OrderItem item(String productId) {
+        return OrderItem.builder().productId(productId).quantity(1).build();
+    }
+
+    private static class FakeCatalogClient implements CatalogClient {
+
+        private final Map<String, ProductInfo> catalog;
+        private final List<List<String>> batchCalls = new ArrayList<>();
+        private volatile boolean failing;
+
+        FakeCatalogClient(Map<String, ProductInfo> catalog) {
+            this.catalog = catalog;
+        }
+
+        @Override
+        public List<ProductInfo> findAll() {
+            return List.copyOf(catalog.values());
+        }
+
+        @Override
+        public List<ProductInfo> findUpdatedSince(LocalDateTime since) {
+            return catalog.values().stream()
+                    .filter(product -> !product.getCatalogUpdated().isBefore(since))
+                    .toList();
+        }
+
+        @Override
+        public List<ProductInfo> findByIds(Collection<String> productIds) {
+            batchCalls.add(List.copyOf(productIds));
+            if (failing) {
+                throw new IllegalStateException("inventory-service unavailable");
+            }
+            return productIds.stream()
+                    .filter(catalog::containsKey)
+                    .map(catalog::get)
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.istio.order.warmup;
+
+import com.example.istio.order.JpaTestConfig;
+import com.example.istio.order.client.CatalogClient;
+import com.example.istio.order.client.InventoryClient;
+import com.example.istio.order.client.PaymentClient;
+import com.example.istio.order.model.InventoryCheckResult;
+import com.example.istio.order.model.PaymentResponse;
+import com.example.istio.order.model.ProductInfo;
+import com.example.istio.order.repository.OrderRepository;
+import com.example.istio.order.service.OrderService;
+import com.example.istio.order.service.ProductCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfig.class)
+// Warm-up runs on its own thread with its own rolled-back transactions
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class WarmupRunnerTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch paymentsReleased = new CountDownLatch(1);
+    private volatile boolean inventoryFailing;
+    private ProductCatalog productCatalog;
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository.deleteAll();
+
+        InventoryClient inventoryClient = (productId, quantity) -> {
+            if (inventoryFailing) {
+                throw new IllegalStateException("inventory-service unavailable");
+            }
+            return InventoryCheckResult.builder()
+                    .productId(productId)
+                    .available(true)
+                    .availableQuantity(quantity)
+                    .requestedQuantity(quantity)
+                    .build();
+        };
+        PaymentClient paymentClient = request -> {
+            try {
+                paymentsReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return PaymentResponse.success(request.getOrderId(), "PAY-" + request.getOrderId(), null);
+        };
+        productCatalog = new ProductCatalog(new EchoCatalogClient(), meterRegistry, Duration.ofSeconds(30));
+        orderService = new OrderService(inventoryClient, paymentClient, productCatalog, new SimpleMeterRegistry(),
+                OpenTelemetry.noop().getTracer("test"), orderRepository);
+    }
+
+    @Test
+    void staysOutOfServiceUntilWarmupHasFinished() throws Exception {
+        WarmupRunner runner = runner(20, Duration.ofSeconds(30));
+        WarmupHealthIndicator health = new WarmupHealthIndicator(runner);
+        assertThat(health.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        runner.startWarmup();
+        awaitState(runner, WarmupRunner.State.RUNNING);
+        assertThat(health.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        paymentsReleased.countDown();
+        awaitFinished(runner);
+
+        assertThat(runner.getState()).isEqualTo(WarmupRunner.State.COMPLETED);
+        assertThat(runner.getCompletedIterations()).isEqualTo(20);
+        assertThat(health.health().getStatus()).isEqualTo(Status.UP);
+        // Every iteration was rolled back and the synthetic products left the catalog
+        assertThat(orderRepository.count()).isZero();
+        assertThat(meterRegistry.get("catalog.cache.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void failedWarmupStillMakesThePodReady() throws Exception {
+        inventoryFailing = true;
+        paymentsReleased.countDown();
+        WarmupRunner runner = runner(20, Duration.ofSeconds(30));
+
+        runner.startWarmup();
+        awaitFinished(runner);
+
+        assertThat(runner.getState()).isEqualTo(WarmupRunner.State.FAILED);
+        assertThat(runner.getFailure()).contains("did not complete");
+        assertThat(new WarmupHealthIndicator(runner).health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void hangingWarmupIsReadyOnceItsBudgetIsSpent() throws Exception {
+        WarmupRunner runner = runner(20, Duration.ofMillis(300));
+
+        runner.startWarmup();
+        awaitFinished(runner);
+
+        // The first payment call is still blocked, yet readiness no longer waits for it
+        assertThat(runner.getState()).isEqualTo(WarmupRunner.State.RUNNING);
+        assertThat(new WarmupHealthIndicator(runner).health().getStatus()).isEqualTo(Status.UP);
+        paymentsReleased.countDown();
+    }
+
+    @Test
+    void disabledWarmupIsReadyImmediately() {
+        WarmupRunner runner = new WarmupRunner(orderService, orderRepository, productCatalog,
+                new WarmupTransport(objectMapper), transactionManager, objectMapper, false, 20,
+                Duration.ofSeconds(30));
+
+        runner.startWarmup();
+
+        assertThat(runner.getState()).isEqualTo(WarmupRunner.State.DISABLED);
+        assertThat(new WarmupHealthIndicator(runner).health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    private WarmupRunner runner(int iterations, Duration maxDuration) {
+        return new WarmupRunner(orderService, orderRepository, productCatalog, new WarmupTransport(objectMapper),
+                transactionManager, objectMapper, true, iterations, maxDuration);
+    }
+
+    private static void awaitState(WarmupRunner runner, WarmupRunner.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (runner.getState() != state && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(runner.getState()).isEqualTo(state);
+    }
+
+    private static void awaitFinished(WarmupRunner runner) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!runner.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(runner.isFinished()).isTrue();
+    }
+
+    /**
+     * Knows every product it is asked for, like the stubbed transport during warm-up
+     */
+    private static class EchoCatalogClient implements CatalogClient {
+
+        @Override
+        public List<ProductInfo> findAll() {
+            return List.of();
+        }
+
+        @Override
+        public List<ProductInfo> findUpdatedSince(LocalDateTime since) {
+            return List.of();
+        }
+
+        @Override
+        public List<ProductInfo> findByIds(Collection<String> productIds) {
+            return productIds.stream()
+                    .map(productId -> ProductInfo.builder()
+                            .productId(productId)
+                            .productName("Warm-up product")
+                            .category("Warm-up")
+                            .build())
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.istio.order.warmup;
+
+import com.example.istio.order.grpc.inventory.InventoryServiceGrpc;
+import com.example.istio.order.grpc.inventory.StockCheckRequest;
+import com.example.istio.order.grpc.inventory.StockCheckResponse;
+import com.example.istio.order.model.InventoryCheckResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.grpc.Channel;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WarmupTransportTest {
+
+    private static final String CHECK_URL = "http://inventory-service:8080/api/inventory/check/PROD-001?quantity=3";
+
+    private final WarmupTransport transport = new WarmupTransport(new ObjectMapper().findAndRegisterModules());
+    // No server is registered under this name, so every real call fails
+    private final ManagedChannel channel = InProcessChannelBuilder.forName(InProcessServerBuilder.generateName())
+            .build();
+
+    @AfterEach
+    void closeChannel() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void answersHttpCallsOfTheWarmupThreadInProcess() {
+        List<URI> sent = new CopyOnWriteArrayList<>();
+        ClientHttpRequestFactory network = (uri, method) -> {
+            sent.add(uri);
+            throw new IOException("Connection refused");
+        };
+        RestTemplate restTemplate = new RestTemplate(transport.wrap(network));
+
+        InventoryCheckResult result = transport.callStubbed(
+                () -> restTemplate.getForObject(CHECK_URL, InventoryCheckResult.class));
+
+        assertThat(result.getProductId()).isEqualTo("PROD-001");
+        assertThat(result.isAvailable()).isTrue();
+        assertThat(result.getRequestedQuantity()).isEqualTo(3);
+        assertThat(sent).isEmpty();
+
+        assertThatThrownBy(() -> restTemplate.getForObject(CHECK_URL, InventoryCheckResult.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    void answersGrpcCallsOfTheWarmupThreadInProcess() {
+        Channel intercepted = ClientInterceptors.intercept(channel, transport.grpcInterceptor());
+        InventoryServiceGrpc.InventoryServiceBlockingStub stub = InventoryServiceGrpc.newBlockingStub(intercepted)
+                .withDeadlineAfter(5, TimeUnit.SECONDS);
+        StockCheckRequest request = StockCheckRequest.newBuilder().setProductId("PROD-001").setQuantity(3).build();
+
+        StockCheckResponse response = transport.callStubbed(() -> stub.checkStock(request));
+
+        assertThat(response.getAvailable()).isTrue();
+        assertThat(response.getRequestedQuantity()).isEqualTo(3);
+
+        assertThatThrownBy(() -> stub.checkStock(request))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.UNAVAILABLE));
+    }
+
+    @Test
+    void stubbingEndsWithTheAction() {
+        transport.callStubbed(() -> {
+            assertThat(transport.isActive()).isTrue();
+            return null;
+        });
+
+        assertThat(transport.isActive()).isFalse();
+    }
+}
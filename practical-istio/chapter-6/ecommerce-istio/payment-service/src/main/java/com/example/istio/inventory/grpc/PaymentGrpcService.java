@@ -0,0 +1,65 @@
+package com.example.istio.inventory.grpc;
+
+import com.example.istio.inventory.model.Payment;
+import com.example.istio.inventory.service.PaymentService;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * gRPC endpoint of payment processing for order-service's service.transport=grpc
+ */
+@Slf4j
+@Component
+public class PaymentGrpcService extends PaymentServiceGrpc.PaymentServiceImplBase {
+
+    private final PaymentService paymentService;
+
+    public PaymentGrpcService(PaymentService paymentService) {
+        this.paymentService = paymentService;
+    }
+
+    @Override
+    public void processPayment(ProcessPaymentRequest request,
+                               StreamObserver<ProcessPaymentResponse> responseObserver) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(request.getAmount());
+        } catch (NumberFormatException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("Amount is not a decimal: " + request.getAmount()).asRuntimeException());
+            return;
+        }
+
+        try {
+            Payment payment = paymentService.processPayment(request.getOrderId(), amount,
+                    emptyToNull(request.getCurrency()), emptyToNull(request.getCustomerId()),
+                    emptyToNull(request.getPaymentMethod()));
+
+            ProcessPaymentResponse.Builder response = ProcessPaymentResponse.newBuilder()
+                    .setPaymentId(payment.getPaymentId())
+                    .setOrderId(payment.getOrderId())
+                    .setStatus(payment.getStatus().name())
+                    .setAmount(payment.getAmount().toPlainString())
+                    .setCurrency(payment.getCurrency());
+            if (payment.getTransactionId() != null) {
+                response.setTransactionId(payment.getTransactionId());
+            }
+            if (payment.getErrorMessage() != null) {
+                response.setErrorMessage(payment.getErrorMessage());
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            log.warn("Payment failed for order {}: {}", request.getOrderId(), e.getMessage());
+            responseObserver.onError(Status.INTERNAL.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
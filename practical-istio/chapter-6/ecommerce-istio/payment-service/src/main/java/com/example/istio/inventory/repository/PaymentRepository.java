@@ -0,0 +1,7 @@
+package com.example.istio.inventory.repository;
+
+import com.example.istio.inventory.model.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PaymentRepository extends JpaRepository<Payment, String> {
+}
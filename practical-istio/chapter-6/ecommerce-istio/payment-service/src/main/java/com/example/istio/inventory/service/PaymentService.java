@@ -0,0 +1,55 @@
+package com.example.istio.inventory.service;
+
+import com.example.istio.inventory.model.Payment;
+import com.example.istio.inventory.model.PaymentStatus;
+import com.example.istio.inventory.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Slf4j
+@Service
+public class PaymentService {
+
+    private final PaymentRepository paymentRepository;
+    private final MeterRegistry meterRegistry;
+
+    public PaymentService(PaymentRepository paymentRepository, MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records the payment of an order. There is no external gateway in this setup,
+     * so every payment with a positive amount is approved.
+     */
+    @Transactional
+    public Payment processPayment(String orderId, BigDecimal amount, String currency,
+                                  String customerId, String paymentMethod) {
+        Payment payment = Payment.builder()
+                .paymentId(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .amount(amount)
+                .currency(currency)
+                .customerId(customerId)
+                .paymentMethod(paymentMethod)
+                .build();
+
+        if (amount == null || amount.signum() <= 0) {
+            payment.setStatus(PaymentStatus.FAILED);
+            payment.setErrorMessage("Amount must be greater than zero");
+        } else {
+            payment.setStatus(PaymentStatus.SUCCESSFUL);
+            payment.setTransactionId(UUID.randomUUID().toString());
+        }
+
+        Payment saved = paymentRepository.save(payment);
+        meterRegistry.counter("payment.processed", "status", saved.getStatus().name()).increment();
+        log.debug("Payment {} for order {}: {}", saved.getPaymentId(), orderId, saved.getStatus());
+        return saved;
+    }
+}
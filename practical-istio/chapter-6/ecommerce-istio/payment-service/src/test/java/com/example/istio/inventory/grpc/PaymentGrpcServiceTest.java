@@ -0,0 +1,145 @@
+package com.example.istio.inventory.grpc;
+
+import com.example.istio.grpc.TracingServerInterceptor;
+import com.example.istio.inventory.model.Payment;
+import com.example.istio.inventory.repository.PaymentRepository;
+import com.example.istio.inventory.service.PaymentService;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+// The server handles calls on its own threads, so payments must commit to be visible here
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentGrpcServiceTest {
+
+    // Only the JPA layer; the application class would pull in the gRPC server and web filters
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = Payment.class)
+    @EnableJpaRepositories(basePackageClasses = PaymentRepository.class)
+    static class JpaConfig {
+    }
+
+    private static final Metadata.Key<String> TRACEPARENT =
+            Metadata.Key.of("traceparent", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private final AtomicReference<String> handlerTraceId = new AtomicReference<>();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private Server server;
+    private ManagedChannel channel;
+    private PaymentServiceGrpc.PaymentServiceBlockingStub stub;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        paymentRepository.deleteAll();
+        PaymentService paymentService = new PaymentService(paymentRepository, new SimpleMeterRegistry()) {
+            @Override
+            public Payment processPayment(String orderId, BigDecimal amount, String currency,
+                                          String customerId, String paymentMethod) {
+                handlerTraceId.set(Span.current().getSpanContext().getTraceId());
+                if (failure.get() != null) {
+                    throw failure.get();
+                }
+                return super.processPayment(orderId, amount, currency, customerId, paymentMethod);
+            }
+        };
+        OpenTelemetry openTelemetry = OpenTelemetry.propagating(
+                ContextPropagators.create(W3CTraceContextPropagator.getInstance()));
+
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .addService(ServerInterceptors.intercept(new PaymentGrpcService(paymentService),
+                        new TracingServerInterceptor(openTelemetry)))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).build();
+        stub = PaymentServiceGrpc.newBlockingStub(channel).withDeadlineAfter(5, TimeUnit.SECONDS);
+    }
+
+    @AfterEach
+    void stopServer() throws InterruptedException {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void approvesAndRecordsAPositiveAmount() {
+        ProcessPaymentResponse response = stub.processPayment(request("ORD-1", "1299.99"));
+
+        assertThat(response.getStatus()).isEqualTo("SUCCESSFUL");
+        assertThat(response.getAmount()).isEqualTo("1299.99");
+        assertThat(response.getCurrency()).isEqualTo("USD");
+        assertThat(response.getTransactionId()).isNotEmpty();
+        assertThat(paymentRepository.findById(response.getPaymentId())).get()
+                .extracting(Payment::getOrderId).isEqualTo("ORD-1");
+    }
+
+    @Test
+    void rejectsAnAmountThatIsNotADecimal() {
+        assertThatThrownBy(() -> stub.processPayment(request("ORD-1", "12,50")))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        e -> assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT));
+        assertThat(paymentRepository.count()).isZero();
+    }
+
+    @Test
+    void reportsAFailingPaymentAsInternal() {
+        failure.set(new IllegalStateException("database unavailable"));
+
+        assertThatThrownBy(() -> stub.processPayment(request("ORD-1", "10.00")))
+                .isInstanceOfSatisfying(StatusRuntimeException.class, e -> {
+                    assertThat(e.getStatus().getCode()).isEqualTo(Status.Code.INTERNAL);
+                    assertThat(e.getStatus().getDescription()).isEqualTo("database unavailable");
+                });
+    }
+
+    @Test
+    void handlerRunsInTheCallersTrace() {
+        Metadata headers = new Metadata();
+        headers.put(TRACEPARENT, "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+
+        stub.withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers))
+                .processPayment(request("ORD-1", "10.00"));
+
+        assertThat(handlerTraceId.get()).isEqualTo("4bf92f3577b34da6a3ce929d0e0e4736");
+    }
+
+    private static ProcessPaymentRequest request(String orderId, String amount) {
+        return ProcessPaymentRequest.newBuilder()
+                .setOrderId(orderId)
+                .setAmount(amount)
+                .build();
+    }
+}
@@ -0,0 +1,70 @@
+#!/bin/bash
+
+# Measures time-to-first-successful-order for a freshly started order-service.
+# inventory-service and payment-service must already be reachable at the URLs
+# configured for order-service.
+#
+# Usage:
+#   ./startup-benchmark.sh <start-command> [runs]
+#
+# Examples:
+#   ./startup-benchmark.sh "java -jar ecommerce-istio/order-service/target/order-service-1.0.0-SNAPSHOT-exec.jar"
+#   ./startup-benchmark.sh "docker run --rm --network host order-service:fast-startup" 5
+
+start_command=${1:?"Usage: $0 <start-command> [runs]"}
+runs=${2:-3}
+order_url=${ORDER_URL:-http://localhost:8080/api/orders}
+timeout_seconds=${TIMEOUT_SECONDS:-120}
+
+# JSON payload for the probe order
+payload='{
+    "customerId": "CUST-BENCH",
+    "items": [
+        {
+            "productId": "PROD-001",
+            "quantity": 1,
+            "unitPrice": 1299.99
+        }
+    ]
+}'
+
+now_ms() {
+    date +%s%3N
+}
+
+total=0
+for run in $(seq 1 "$runs"); do
+    echo "Run $run of $runs: $start_command"
+    started=$(now_ms)
+    # exec keeps the command's own quoting and makes $! its pid, so kill stops the service itself
+    bash -c "exec $start_command" > "startup-benchmark-run-$run.log" 2>&1 &
+    pid=$!
+
+    elapsed=""
+    while [ $(( $(now_ms) - started )) -lt $(( timeout_seconds * 1000 )) ]; do
+        response=$(curl -s -X POST "$order_url" \
+            -H 'Content-Type: application/json' \
+            -d "$payload" 2>/dev/null)
+        if echo "$response" | grep -q '"status":"COMPLETED"'; then
+            elapsed=$(( $(now_ms) - started ))
+            break
+        fi
+        sleep 0.05
+    done
+
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null
+
+    if [ -z "$elapsed" ]; then
+        echo "  no successful order within ${timeout_seconds}s, see startup-benchmark-run-$run.log"
+        exit 1
+    fi
+
+    echo "  time to first successful order: ${elapsed} ms"
+    total=$(( total + elapsed ))
+    # Let the port be released before the next run
+    sleep 2
+done
+
+echo -e "\n-------------------\n"
+echo "Average time to first successful order over $runs runs: $(( total / runs )) ms"